@@ -0,0 +1,105 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Нагрузочный прогон {@code GET /bookings/owner} на платформенных и на
+ * виртуальных потоках с выводом p50/p99 по успешным ответам и числа
+ * ответов по кодам статуса: отказы 429/503 считаются отдельно и в
+ * перцентили не попадают. Запуск:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=ru.practicum.shareit.benchmark.BookingLoadTest
+ * -Djmh.args="-Drequests=20000 -Dconcurrency=2000"}. Остальные аргументы
+ * передаются приложению, например адрес PostgreSQL вместо H2.
+ */
+public class BookingLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("requests", 10000);
+        int concurrency = Integer.getInteger("concurrency", 2000);
+        run(false, requests, concurrency, args);
+        run(true, requests, concurrency, args);
+    }
+
+    private static void run(boolean virtual, int requests, int concurrency, String[] args) throws Exception {
+        String[] appArgs = Stream.concat(Arrays.stream(args), Stream.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--logging.level.root=WARN"
+        )).toArray(String[]::new);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .run(appArgs)) {
+            List<User> owners = new DataGenerator(context).generate(50, 20, 10);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            long[] latencies = new long[requests];
+            Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+            LongAdder failures = new LongAdder();
+            Semaphore inFlight = new Semaphore(concurrency);
+            long started = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient client = HttpClient.newBuilder().executor(executor).build()) {
+                for (int i = 0; i < requests; i++) {
+                    int n = i;
+                    inFlight.acquire();
+                    executor.submit(() -> {
+                        try {
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/owner?size=20"))
+                                    .header("X-Sharer-User-Id", String.valueOf(owners.get(n % owners.size()).getId()))
+                                    .build();
+                            long start = System.nanoTime();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            long elapsed = System.nanoTime() - start;
+                            statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                            latencies[n] = response.statusCode() / 100 == 2 ? elapsed : Long.MAX_VALUE;
+                        } catch (IOException e) {
+                            failures.increment();
+                            latencies[n] = Long.MAX_VALUE;
+                        } finally {
+                            inFlight.release();
+                        }
+                        return null;
+                    });
+                }
+                inFlight.acquire(concurrency);
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(latencies);
+            int ok = (int) Arrays.stream(latencies).filter(latency -> latency != Long.MAX_VALUE).count();
+            System.out.printf("%s threads: %d requests, %d ok, %.0f ok/s, statuses=%s, io errors=%d%n",
+                    virtual ? "virtual" : "platform",
+                    requests,
+                    ok,
+                    ok / seconds,
+                    statuses,
+                    failures.sum());
+            if (ok > 0) {
+                System.out.printf("  ok latency: p50=%d ms, p99=%d ms, max=%d ms%n",
+                        TimeUnit.NANOSECONDS.toMillis(latencies[ok / 2]),
+                        TimeUnit.NANOSECONDS.toMillis(latencies[(int) (ok * 0.99)]),
+                        TimeUnit.NANOSECONDS.toMillis(latencies[ok - 1]));
+            }
+        }
+    }
+}
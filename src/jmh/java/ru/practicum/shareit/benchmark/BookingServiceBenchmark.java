@@ -0,0 +1,25 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookingServiceBenchmark {
+
+    @Benchmark
+    public BookingPage getOwnerBookings(ShareItState state) {
+        return state.bookingService.getOwnerBookings(state.ownerId, BookingState.ALL, 0, 20, null);
+    }
+
+    @Benchmark
+    public BookingPage getOwnerBookingsFuture(ShareItState state) {
+        return state.bookingService.getOwnerBookings(state.ownerId, BookingState.FUTURE, 0, 20, null);
+    }
+}
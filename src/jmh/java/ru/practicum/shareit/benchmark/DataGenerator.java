@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заполняет базу связанными данными: каждый пользователь владеет
+ * {@code itemsPerOwner} вещами, у каждой вещи {@code bookingsPerItem}
+ * одобренных бронирований (половина в прошлом, половина в будущем) от
+ * соседних пользователей и по комментарию на каждое прошедшее бронирование.
+ */
+public class DataGenerator {
+    private static final String[] WORDS = {"дрель", "пила", "лестница", "палатка", "велосипед", "проектор"};
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemSearchEngine searchEngine;
+
+    public DataGenerator(ConfigurableApplicationContext context) {
+        userRepository = context.getBean(UserRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        searchEngine = context.getBean(ItemSearchEngine.class);
+    }
+
+    public List<User> generate(int users, int itemsPerOwner, int bookingsPerItem) {
+        List<User> owners = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            User user = new User();
+            user.setName("user" + u);
+            user.setEmail("user" + u + "@bench.ru");
+            owners.add(user);
+        }
+        owners = userRepository.saveAll(owners);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int u = 0; u < users; u++) {
+            User owner = owners.get(u);
+            User booker = owners.get((u + 1) % users);
+
+            List<Item> items = new ArrayList<>(itemsPerOwner);
+            for (int i = 0; i < itemsPerOwner; i++) {
+                Item item = new Item();
+                String word = WORDS[(u + i) % WORDS.length];
+                item.setName(word + " " + i);
+                item.setDescription("Хорошая " + word + " владельца " + u);
+                item.setAvailable(i % 5 != 0);
+                item.setOwner(owner);
+                items.add(item);
+            }
+            items = itemRepository.saveAll(items);
+            items.forEach(searchEngine::index);
+
+            List<Booking> bookings = new ArrayList<>(itemsPerOwner * bookingsPerItem);
+            List<Comment> comments = new ArrayList<>();
+            for (Item item : items) {
+                for (int b = 0; b < bookingsPerItem; b++) {
+                    LocalDateTime start = now.plusDays((b - bookingsPerItem / 2) * 2L);
+                    Booking booking = new Booking();
+                    booking.setItem(item);
+                    booking.setBooker(booker);
+                    booking.setStart(start);
+                    booking.setEnd(start.plusDays(1));
+                    booking.setStatus(BookingStatus.APPROVED);
+                    bookings.add(booking);
+
+                    if (booking.getEnd().isBefore(now)) {
+                        Comment comment = new Comment();
+                        comment.setItem(item);
+                        comment.setAuthor(booker);
+                        comment.setText("Отзыв " + b);
+                        comment.setCreated(booking.getEnd());
+                        comments.add(comment);
+                    }
+                }
+            }
+            bookingRepository.saveAll(bookings);
+            commentRepository.saveAll(comments);
+        }
+        return owners;
+    }
+}
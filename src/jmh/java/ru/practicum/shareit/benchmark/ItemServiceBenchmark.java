@@ -0,0 +1,38 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import ru.practicum.shareit.item.cache.ItemDetailCache;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ItemServiceBenchmark {
+
+    @Benchmark
+    public List<ItemWithBookingsDto> getOwnerItems(ShareItState state) {
+        return state.itemService.getOwnerItems(state.ownerId);
+    }
+
+    @Benchmark
+    public ItemWithBookingsDto getCached(ShareItState state) {
+        return state.itemService.get(state.ownerId, state.itemId);
+    }
+
+    @Benchmark
+    public ItemWithBookingsDto getUncached(ShareItState state) {
+        state.context.getBean(ItemDetailCache.class).evict(state.itemId);
+        return state.itemService.get(state.ownerId, state.itemId);
+    }
+
+    @Benchmark
+    public List<Item> search(ShareItState state) {
+        return state.itemService.search("дрел");
+    }
+}
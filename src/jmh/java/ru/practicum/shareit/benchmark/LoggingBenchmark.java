@@ -0,0 +1,127 @@
+package ru.practicum.shareit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.logging.RequestLogSampling;
+import ru.practicum.shareit.logging.SamplingTurboFilter;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность логирования сервисного сообщения: синхронный
+ * текстовый вывод как в разработке против асинхронного JSON через кольцевой
+ * буфер, с выборкой и без. В режиме с выборкой в выборку попадает каждый
+ * десятый вызов, остальные откладываются и отбрасываются как у успешного
+ * запроса. Вывод идёт в пустой поток, чтобы мерить затраты CPU, а не диска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class LoggingBenchmark {
+    @Param({"sync-text", "async-json", "async-json-sampled"})
+    public String mode;
+
+    private final AtomicLong counter = new AtomicLong();
+    private LoggerContext context;
+    private org.slf4j.Logger log;
+
+    @Setup
+    public void setUp() {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        Appender<ILoggingEvent> appender = switch (mode) {
+            case "sync-text" -> output(textEncoder());
+            case "async-json" -> async(output(jsonEncoder()));
+            case "async-json-sampled" -> {
+                SamplingTurboFilter filter = new SamplingTurboFilter();
+                filter.setLoggerPrefix("ru.practicum.shareit");
+                filter.setContext(context);
+                filter.start();
+                context.addTurboFilter(filter);
+                yield async(output(jsonEncoder()));
+            }
+            default -> throw new IllegalArgumentException(mode);
+        };
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        log = LoggerFactory.getLogger("ru.practicum.shareit.item.service.ItemServiceImpl");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.reset();
+    }
+
+    @Benchmark
+    public void logServiceCall() {
+        long id = counter.incrementAndGet();
+        if (!mode.equals("async-json-sampled")) {
+            log.info("Вещь {} успешно получена пользователем {}", id, id % 1000);
+            return;
+        }
+        RequestLogSampling.Scope scope = RequestLogSampling.open(id % 10 == 0);
+        try {
+            log.info("Вещь {} успешно получена пользователем {}", id, id % 1000);
+        } finally {
+            scope.close(false);
+        }
+    }
+
+    private Encoder<ILoggingEvent> textEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        return encoder;
+    }
+
+    private OutputStreamAppender<ILoggingEvent> output(Encoder<ILoggingEvent> encoder) {
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private Appender<ILoggingEvent> async(Appender<ILoggingEvent> delegate) {
+        LoggingEventAsyncDisruptorAppender appender = new LoggingEventAsyncDisruptorAppender();
+        appender.setContext(context);
+        appender.setRingBufferSize(8192);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+}
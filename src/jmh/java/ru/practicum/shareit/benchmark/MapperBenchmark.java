@@ -0,0 +1,123 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.mapper.ItemViewMapper;
+import ru.practicum.shareit.item.mapper.ItemViewMapperImpl;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнивает сгенерированный {@link ItemViewMapper} с прежним ручным
+ * маппингом через стримы. Выделение памяти на ответ видно с профайлером
+ * {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapperBenchmark {
+    @Param({"10", "1000"})
+    public int size;
+
+    private List<Item> items;
+    private List<Comment> comments;
+    private final ItemViewMapper itemViewMapper = new ItemViewMapperImpl();
+    private final BookingShortDto lastBooking = new BookingShortDto(1L, 2L);
+
+    @Setup
+    public void setUp() {
+        User owner = new User();
+        owner.setId(1L);
+        owner.setName("owner");
+        owner.setEmail("owner@bench.ru");
+
+        items = new ArrayList<>(size);
+        comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.setId((long) i);
+            item.setName("Вещь " + i);
+            item.setDescription("Описание " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(item);
+
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setText("Отзыв " + i);
+            comment.setItem(item);
+            comment.setAuthor(owner);
+            comment.setCreated(LocalDateTime.now());
+            comments.add(comment);
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> items() {
+        return items.stream()
+                .map(ItemMapper::toItemDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<CommentDto> commentsStream() {
+        return comments.stream()
+                .map(c -> new CommentDto(c.getId(), c.getText(), c.getAuthor().getName(), c.getCreated()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CommentDto> commentsGenerated() {
+        return itemViewMapper.toCommentDtos(comments);
+    }
+
+    @Benchmark
+    public List<ItemWithBookingsDto> ownerItemsStream() {
+        Map<Long, List<CommentDto>> commentsMap = comments.stream()
+                .collect(Collectors.groupingBy(
+                        c -> c.getItem().getId(),
+                        Collectors.mapping(c -> new CommentDto(c.getId(), c.getText(),
+                                c.getAuthor().getName(), c.getCreated()), Collectors.toList())
+                ));
+        return items.stream()
+                .map(item -> new ItemWithBookingsDto(item.getId(), item.getName(), item.getDescription(),
+                        item.getAvailable(), null, lastBooking, null,
+                        commentsMap.getOrDefault(item.getId(), List.of())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ItemWithBookingsDto> ownerItemsGenerated() {
+        Map<Long, List<CommentDto>> commentsMap = new HashMap<>();
+        for (Comment comment : comments) {
+            commentsMap.computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>())
+                    .add(itemViewMapper.toCommentDto(comment));
+        }
+        List<ItemWithBookingsDto> result = new ArrayList<>(items.size());
+        for (Item item : items) {
+            result.add(itemViewMapper.toItemWithBookingsDto(item, lastBooking, null,
+                    commentsMap.getOrDefault(item.getId(), List.of())));
+        }
+        return result;
+    }
+}
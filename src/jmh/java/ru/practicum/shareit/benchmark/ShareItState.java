@@ -0,0 +1,64 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+/**
+ * Поднимает контекст приложения на H2 (профиль test) и заполняет базу
+ * данными заданного масштаба один раз на прогон.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+    @Param("50")
+    public int users;
+
+    @Param("20")
+    public int itemsPerOwner;
+
+    @Param("10")
+    public int bookingsPerItem;
+
+    public ConfigurableApplicationContext context;
+    public ItemService itemService;
+    public BookingService bookingService;
+    public Long ownerId;
+    public Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+
+        List<User> owners = new DataGenerator(context).generate(users, itemsPerOwner, bookingsPerItem);
+        ownerId = owners.getFirst().getId();
+        itemId = context.getBean(ItemRepository.class).findByOwnerId(ownerId).stream()
+                .filter(Item::getAvailable)
+                .findFirst()
+                .map(Item::getId)
+                .orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Результат пакетной операции: созданные записи и ошибки по номерам строк
+ * входного списка.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchResult<T> {
+    private List<T> created;
+    private List<BatchError> errors;
+
+    public <R> BatchResult<R> map(Function<T, R> mapper) {
+        return new BatchResult<>(created.stream().map(mapper).toList(), errors);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Сохраняет пакет частями, каждую часть в отдельной транзакции. Вставки
+ * внутри части уходят JDBC-батчами, после части контекст персистентности
+ * очищается. Ошибка базы помечает все строки своей части.
+ */
+@Component
+@Slf4j
+public class BatchWriter {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxSize;
+
+    public BatchWriter(EntityManager entityManager,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.batch.chunk-size:500}") int chunkSize,
+                       @Value("${shareit.batch.max-size:100000}") int maxSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+    }
+
+    public void checkSize(List<?> rows) {
+        if (rows == null || rows.isEmpty() || rows.size() > maxSize) {
+            log.warn("Недопустимый размер пакета");
+            throw new BadRequestException("Размер пакета должен быть от 1 до " + maxSize);
+        }
+    }
+
+    public <I, T> BatchResult<T> write(List<Row<I>> rows,
+                                       List<BatchError> errors,
+                                       BiFunction<List<Row<I>>, List<BatchError>, List<T>> prepare) {
+        return write(rows, errors, prepare, saved -> {
+        });
+    }
+
+    /**
+     * @param rows    прошедшие предварительную проверку строки с их номерами
+     * @param errors  уже найденные ошибки, дополняются отказами по частям
+     * @param prepare вызывается в транзакции части, возвращает сущности к
+     *                сохранению и дописывает отказы по строкам во второй аргумент
+     * @param afterSave вызывается в той же транзакции после вставки части
+     */
+    public <I, T> BatchResult<T> write(List<Row<I>> rows,
+                                       List<BatchError> errors,
+                                       BiFunction<List<Row<I>>, List<BatchError>, List<T>> prepare,
+                                       Consumer<List<T>> afterSave) {
+        List<T> created = new ArrayList<>(rows.size());
+
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Row<I>> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            List<BatchError> chunkErrors = new ArrayList<>();
+            try {
+                List<T> saved = transactionTemplate.execute(status -> {
+                    List<T> entities = prepare.apply(chunk, chunkErrors);
+                    entities.forEach(entityManager::persist);
+                    afterSave.accept(entities);
+                    entityManager.flush();
+                    entityManager.clear();
+                    return entities;
+                });
+                created.addAll(saved);
+                errors.addAll(chunkErrors);
+            } catch (RuntimeException e) {
+                log.warn("Часть пакета из {} строк не сохранена: {}", chunk.size(), e.getMessage());
+                for (Row<I> row : chunk) {
+                    errors.add(new BatchError(row.index(), "Ошибка сохранения"));
+                }
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(BatchError::getIndex));
+        return new BatchResult<>(created, errors);
+    }
+
+    public record Row<I>(int index, I value) {
+    }
+}
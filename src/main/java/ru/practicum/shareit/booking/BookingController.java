@@ -2,10 +2,21 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.OwnerBookingStream;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.idempotency.IdempotencyGuard;
 
 import java.util.List;
 
@@ -16,40 +27,94 @@ import java.util.List;
 public class BookingController {
 
     private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /**
+     * Размер страницы, если {@code size} не передан. Полная страница
+     * сопровождается заголовком {@code X-Next-Cursor} для следующей.
+     */
+    private static final int DEFAULT_SIZE = 100;
 
     private final BookingService bookingService;
+    private final OwnerBookingStream ownerBookingStream;
+    private final IdempotencyGuard idempotencyGuard;
 
     @PostMapping
-    public Booking create(@RequestHeader(USER_HEADER) Long userId,
-                          @RequestBody BookingDto dto) {
+    public BookingResponseDto create(@RequestHeader(USER_HEADER) Long userId,
+                                     @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                     @RequestBody BookingDto dto) {
         log.info("Создание бронирования пользователем {}: {}", userId, dto);
-        return bookingService.create(userId, dto);
+        return idempotencyGuard.execute("bookings", userId, idempotencyKey, dto, BookingResponseDto.class,
+                () -> BookingMapper.toDto(bookingService.create(userId, dto)));
+    }
+
+    @PostMapping("/batch")
+    public BatchResult<BookingResponseDto> createBatch(@RequestHeader(USER_HEADER) Long userId,
+                                                       @RequestBody List<BookingDto> dtos) {
+        log.info("Пакетное создание {} бронирований пользователем {}", dtos.size(), userId);
+        return bookingService.createBatch(userId, dtos).map(BookingMapper::toDto);
     }
 
     @PatchMapping("/{id}")
-    public Booking approve(@RequestHeader(USER_HEADER) Long userId,
-                           @PathVariable Long id,
-                           @RequestParam boolean approved) {
+    public BookingResponseDto approve(@RequestHeader(USER_HEADER) Long userId,
+                                      @PathVariable Long id,
+                                      @RequestParam boolean approved) {
         log.info("Пользователь {} {} бронирование {}", userId, approved ? "одобрил" : "отклонил", id);
-        return bookingService.approve(userId, id, approved);
+        return BookingMapper.toDto(bookingService.approve(userId, id, approved));
     }
 
     @GetMapping("/{id}")
-    public Booking get(@RequestHeader(USER_HEADER) Long userId,
-                       @PathVariable Long id) {
+    public BookingResponseDto get(@RequestHeader(USER_HEADER) Long userId,
+                                  @PathVariable Long id,
+                                  WebRequest request) {
         log.info("Получение бронирования {} пользователем {}", id, userId);
-        return bookingService.get(userId, id);
+        if (bookingService.getVersion(userId, id).checkNotModified(request)) {
+            return null;
+        }
+        return BookingMapper.toDto(bookingService.get(userId, id));
     }
 
     @GetMapping
-    public List<Booking> userBookings(@RequestHeader(USER_HEADER) Long userId) {
-        log.info("Получение всех бронирований пользователя {}", userId);
-        return bookingService.getUserBookings(userId);
+    public ResponseEntity<List<BookingResponseDto>> userBookings(@RequestHeader(USER_HEADER) Long userId,
+                                                                 @RequestParam(defaultValue = "ALL") String state,
+                                                                 @RequestParam(required = false) Integer from,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(required = false) String cursor) {
+        log.info("Получение бронирований пользователя {} в состоянии {}, from={}, size={}", userId, state, from, size);
+        return withCursor(bookingService.getUserBookings(userId, BookingState.from(state), offset(from, cursor), limit(size), cursor));
     }
 
     @GetMapping("/owner")
-    public List<Booking> ownerBookings(@RequestHeader(USER_HEADER) Long userId) {
-        log.info("Получение всех бронирований владельца {}", userId);
-        return bookingService.getOwnerBookings(userId);
+    public ResponseEntity<List<BookingResponseDto>> ownerBookings(@RequestHeader(USER_HEADER) Long userId,
+                                                                  @RequestParam(defaultValue = "ALL") String state,
+                                                                  @RequestParam(required = false) Integer from,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @RequestParam(required = false) String cursor) {
+        log.info("Получение бронирований владельца {} в состоянии {}, from={}, size={}", userId, state, from, size);
+        return withCursor(bookingService.getOwnerBookings(userId, BookingState.from(state), offset(from, cursor), limit(size), cursor));
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ownerStream(@RequestHeader(USER_HEADER) Long userId) {
+        log.info("Подписка владельца {} на поток бронирований", userId);
+        return ownerBookingStream.subscribe(userId);
+    }
+
+    private static int offset(Integer from, String cursor) {
+        if (from != null && cursor != null) {
+            throw new BadRequestException("Параметры from и cursor нельзя передавать вместе");
+        }
+        return from == null ? 0 : from;
+    }
+
+    private static int limit(Integer size) {
+        return size == null ? DEFAULT_SIZE : size;
+    }
+
+    private static ResponseEntity<List<BookingResponseDto>> withCursor(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(BookingMapper.toDto(page.bookings()));
     }
 }
\ No newline at end of file
@@ -1,53 +1,200 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.item.cache.BookingTimelineRow;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
+    @Query("""
+            select b from Booking b
+            where b.booker.id = :bookerId
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookerPage(Long bookerId, LocalDateTime start, Long id, Pageable pageable);
 
-    boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long userId, LocalDateTime time);
+    @Query("""
+            select b from Booking b
+            where b.booker.id = :bookerId
+            and b.start <= :now and b.end > :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookerCurrentPage(Long bookerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
 
-    Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime now, BookingStatus status);
+    @Query("""
+            select b from Booking b
+            where b.booker.id = :bookerId
+            and b.end <= :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookerPastPage(Long bookerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
 
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime now, BookingStatus status);
+    @Query("""
+            select b from Booking b
+            where b.booker.id = :bookerId
+            and b.start > :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookerFuturePage(Long bookerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
 
     @Query("""
             select b from Booking b
-            where b.item.id in :itemIds
-            and b.start < :now
+            where b.booker.id = :bookerId
             and b.status = :status
-            and b.end = (
-                select max(b2.end) from Booking b2
-                where b2.item.id = b.item.id
-                and b2.start < :now
-                and b2.status = :status
-            )
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
             """)
-    List<Booking> findLastBookings(List<Long> itemIds, LocalDateTime now, BookingStatus status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findBookerPageByStatus(Long bookerId, BookingStatus status, LocalDateTime start, Long id, Pageable pageable);
 
+    /**
+     * Ключ страницы лежит в bookings, а владелец — в items, поэтому готового
+     * индекса в порядке (owner, start, id) нет: Postgres проходит вещи владельца
+     * по idx_items_owner, их бронирования по idx_bookings_item_start и сортирует
+     * top-N. Стоимость страницы растёт с числом бронирований владельца, а не с
+     * размером страницы; для владельцев с большой историей понадобится
+     * owner_id в bookings. То же относится к остальным findOwner*Page.
+     */
+    @Query("""
+            select b from Booking b
+            where b.item.owner.id = :ownerId
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findOwnerPage(Long ownerId, LocalDateTime start, Long id, Pageable pageable);
 
     @Query("""
             select b from Booking b
-            where b.item.id in :itemIds
+            where b.item.owner.id = :ownerId
+            and b.start <= :now and b.end > :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findOwnerCurrentPage(Long ownerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query("""
+            select b from Booking b
+            where b.item.owner.id = :ownerId
+            and b.end <= :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findOwnerPastPage(Long ownerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query("""
+            select b from Booking b
+            where b.item.owner.id = :ownerId
             and b.start > :now
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findOwnerFuturePage(Long ownerId, LocalDateTime now, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query("""
+            select b from Booking b
+            where b.item.owner.id = :ownerId
+            and b.status = :status
+            and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findOwnerPageByStatus(Long ownerId, BookingStatus status, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query("""
+            select case when count(b) > 0 then true else false end from Booking b
+            where b.item.id = :itemId
+            and b.id <> :excludeId
+            and b.status in :statuses
+            and b.start < :end
+            and b.end > :start
+            """)
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end,
+                              Collection<BookingStatus> statuses, Long excludeId);
+
+    @Query("""
+            select b from Booking b
+            where b.item.id in :itemIds
+            and b.status in :statuses
+            and b.start < :end
+            and b.end > :start
+            """)
+    List<Booking> findOverlapping(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end,
+                                  Collection<BookingStatus> statuses);
+
+    @Query("select b.item.id from Booking b where b.id = :bookingId")
+    Optional<Long> findItemIdById(Long bookingId);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingVersion(
+                u.id, i.owner.id, b.version, i.version, u.version)
+            from Booking b join b.item i join b.booker u
+            where b.id = :bookingId
+            """)
+    Optional<BookingVersion> findVersion(Long bookingId);
+
+    boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long userId, LocalDateTime time);
+
+    @Query("""
+            select new ru.practicum.shareit.item.cache.BookingTimelineRow(b.id, b.item.id, b.booker.id, b.start, b.end)
+            from Booking b
+            where b.item.id in :itemIds
             and b.status = :status
-            and b.start = (
-                select min(b2.start) from Booking b2
-                where b2.item.id = b.item.id
-                and b2.start > :now
-                and b2.status = :status
-            )
+            order by b.item.id, b.start, b.id
+            """)
+    List<BookingTimelineRow> findApprovedTimeline(Collection<Long> itemIds, BookingStatus status);
+
+    @Query("""
+            select new ru.practicum.shareit.item.cache.BookingTimelineRow(b.id, b.item.id, b.booker.id, b.start, b.end)
+            from Booking b
+            where b.item.id = :itemId
+            and b.status in :statuses
+            and b.end > :after
+            order by b.start, b.id
+            """)
+    List<BookingTimelineRow> findOccupiedAfter(Long itemId, Collection<BookingStatus> statuses, LocalDateTime after);
+
+    @Query("""
+            select distinct b.item.id from Booking b
+            where b.status = :status
+            and b.item.id > :itemId
+            order by b.item.id
             """)
-    List<Booking> findNextBookings(List<Long> itemIds, LocalDateTime now, BookingStatus status);
+    List<Long> findApprovedItemIdsAfter(Long itemId, BookingStatus status, Pageable pageable);
 
+    @Query("select b from Booking b where b.booker.id = :bookerId order by b.id")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Booking> streamByBookerId(Long bookerId);
 }
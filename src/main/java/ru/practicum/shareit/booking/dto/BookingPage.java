@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public record BookingPage(List<Booking> bookings, String nextCursor) {
+
+    public static BookingPage of(List<Booking> bookings, int size) {
+        if (bookings.size() < size) {
+            return new BookingPage(bookings, null);
+        }
+        Booking last = bookings.getLast();
+        return new BookingPage(bookings, new BookingCursor(last.getStart(), last.getId()).encode());
+    }
+}
@@ -1,10 +1,21 @@
 package ru.practicum.shareit.booking.dto;
 
+import ru.practicum.shareit.exception.BadRequestException;
+
 public enum BookingState {
     ALL,
     CURRENT,
     PAST,
     FUTURE,
     WAITING,
-    REJECTED
+    REJECTED;
+
+    public static BookingState from(String value) {
+        for (BookingState state : values()) {
+            if (state.name().equalsIgnoreCase(value)) {
+                return state;
+            }
+        }
+        throw new BadRequestException("Unknown state: " + value);
+    }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.mapper;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.UserMapper;
+
+import java.util.List;
+
+public class BookingMapper {
+
+    public static BookingResponseDto toDto(Booking booking) {
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setId(booking.getId());
+        dto.setStart(booking.getStart());
+        dto.setEnd(booking.getEnd());
+        dto.setStatus(booking.getStatus());
+        dto.setItem(ItemMapper.toItemDto(booking.getItem()));
+        dto.setBooker(UserMapper.toUserDto(booking.getBooker()));
+        return dto;
+    }
+
+    public static List<BookingResponseDto> toDto(List<Booking> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toDto)
+                .toList();
+    }
+}
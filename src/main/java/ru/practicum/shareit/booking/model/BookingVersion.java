@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Версии всего, что входит в ответ о бронировании: самого бронирования,
+ * вещи и арендатора. У пользователей нет времени изменения, поэтому
+ * бронирование сравнивается только по ETag, без {@code Last-Modified}.
+ */
+public record BookingVersion(Long bookerId,
+                             Long ownerId,
+                             Long version,
+                             Long itemVersion,
+                             Long bookerVersion) {
+}
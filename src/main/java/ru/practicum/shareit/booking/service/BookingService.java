@@ -1,18 +1,30 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.conditional.ResourceVersion;
 
 import java.util.List;
 
 public interface BookingService {
     Booking create(Long userId, BookingDto dto);
 
+    BatchResult<Booking> createBatch(Long userId, List<BookingDto> dtos);
+
     Booking approve(Long ownerId, Long bookingId, boolean approved);
 
     Booking get(Long userId, Long bookingId);
 
-    List<Booking> getUserBookings(Long userId);
+    /**
+     * Валидаторы ответа {@link #get} одним лёгким запросом, с той же
+     * проверкой доступа.
+     */
+    ResourceVersion getVersion(Long userId, Long bookingId);
+
+    BookingPage getUserBookings(Long userId, BookingState state, int from, int size, String cursor);
 
-    List<Booking> getOwnerBookings(Long ownerId);
+    BookingPage getOwnerBookings(Long ownerId, BookingState state, int from, int size, String cursor);
 }
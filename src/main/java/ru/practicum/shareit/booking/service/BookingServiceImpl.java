@@ -2,32 +2,74 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.batch.BatchError;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.batch.BatchWriter;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.stream.BookingChangedEvent;
+import ru.practicum.shareit.conditional.ResourceVersion;
+import ru.practicum.shareit.config.ReadRoutingContext;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.BookingTimelineIndex;
+import ru.practicum.shareit.item.cache.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.model.BookingEventType;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final Long NO_BOOKING = 0L;
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemLocks itemLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchWriter batchWriter;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Booking create(Long userId, BookingDto dto) {
+        if (dto.getItemId() == null) {
+            throw new BadRequestException("Вещь для бронирования не указана");
+        }
+
         if (dto.getStart() == null || dto.getEnd() == null) {
             throw new BadRequestException("Дата начала или окончания бронирования не указана");
         }
@@ -42,34 +84,174 @@ public class BookingServiceImpl implements BookingService {
 
         User booker = userService.get(userId);
 
-        Item item = itemService.getItem(dto.getItemId());
+        // Дерево занятости может отставать от базы (бронирования и отказы на других узлах),
+        // поэтому попадание в него только повод проверить пересечение в базе без блокировки.
+        if (itemAvailabilityIndex.isBusy(dto.getItemId(), dto.getStart(), dto.getEnd())) {
+            if (ReadRoutingContext.onPrimary(() -> bookingRepository.existsOverlapping(
+                    dto.getItemId(), dto.getStart(), dto.getEnd(), ACTIVE_STATUSES, NO_BOOKING))) {
+                log.warn("Вещь {} уже забронирована на пересекающийся период", dto.getItemId());
+                throw new ConflictException("Вещь уже забронирована на эти даты");
+            }
+            log.debug("Дерево занятости вещи {} устарело, перечитываем", dto.getItemId());
+            itemAvailabilityIndex.invalidate(dto.getItemId());
+        }
+
+        Lock lock = itemLocks.forItem(dto.getItemId());
+        lock.lock();
+        try {
+            Booking saved = transactionTemplate.execute(status -> {
+                Item item = itemService.getItemForUpdate(dto.getItemId());
+
+                if (!item.getAvailable()) {
+                    log.warn("Вещь {} недоступна для бронирования", dto.getItemId());
+                    throw new BadRequestException("Вещь недоступна");
+                }
+
+                if (bookingRepository.existsOverlapping(
+                        item.getId(), dto.getStart(), dto.getEnd(), ACTIVE_STATUSES, NO_BOOKING)) {
+                    log.warn("Вещь {} уже забронирована на пересекающийся период", dto.getItemId());
+                    throw new ConflictException("Вещь уже забронирована на эти даты");
+                }
+
+                Booking booking = new Booking();
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStart(dto.getStart());
+                booking.setEnd(dto.getEnd());
+                booking.setStatus(BookingStatus.WAITING);
+                Booking created = bookingRepository.save(booking);
+                changed(created, BookingEventType.CREATED);
+                return created;
+            });
+            itemAvailabilityIndex.booked(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BatchResult<Booking> createBatch(Long userId, List<BookingDto> dtos) {
+        batchWriter.checkSize(dtos);
+        User booker = userService.get(userId);
+        LocalDateTime now = LocalDateTime.now();
 
-        if (!item.getAvailable()) {
-            log.warn("Вещь {} недоступна для бронирования", dto.getItemId());
-            throw new BadRequestException("Вещь недоступна");
+        List<BatchError> errors = new ArrayList<>();
+        List<BatchWriter.Row<BookingDto>> rows = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            BookingDto dto = dtos.get(i);
+            if (dto == null || dto.getItemId() == null) {
+                errors.add(new BatchError(i, "Вещь для бронирования не указана"));
+            } else if (dto.getStart() == null || dto.getEnd() == null) {
+                errors.add(new BatchError(i, "Дата начала или окончания бронирования не указана"));
+            } else if (!dto.getEnd().isAfter(dto.getStart())) {
+                errors.add(new BatchError(i, "Дата конца бронирования должна быть после даты начала"));
+            } else if (dto.getStart().isBefore(now)) {
+                errors.add(new BatchError(i, "Дата начала не может быть в прошлом"));
+            } else {
+                rows.add(new BatchWriter.Row<>(i, dto));
+            }
         }
 
-        Booking booking = new Booking();
-        booking.setItem(item);
-        booking.setBooker(booker);
-        booking.setStart(dto.getStart());
-        booking.setEnd(dto.getEnd());
-        booking.setStatus(BookingStatus.WAITING);
-        return bookingRepository.save(booking);
+        BatchResult<Booking> result = batchWriter.write(rows, errors, (chunk, chunkErrors) -> {
+            Set<Long> itemIds = new TreeSet<>();
+            LocalDateTime from = LocalDateTime.MAX;
+            LocalDateTime to = LocalDateTime.MIN;
+            for (BatchWriter.Row<BookingDto> row : chunk) {
+                itemIds.add(row.value().getItemId());
+                from = row.value().getStart().isBefore(from) ? row.value().getStart() : from;
+                to = row.value().getEnd().isAfter(to) ? row.value().getEnd() : to;
+            }
+
+            Map<Long, Item> items = itemService.getItemsForUpdate(itemIds)
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            Map<Long, List<Booking>> taken = bookingRepository.findOverlapping(itemIds, from, to, ACTIVE_STATUSES)
+                    .stream()
+                    .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+
+            List<Booking> bookings = new ArrayList<>(chunk.size());
+            for (BatchWriter.Row<BookingDto> row : chunk) {
+                BookingDto dto = row.value();
+                Item item = items.get(dto.getItemId());
+                if (item == null) {
+                    chunkErrors.add(new BatchError(row.index(), "Вещь не найдена"));
+                    continue;
+                }
+                if (!item.getAvailable()) {
+                    chunkErrors.add(new BatchError(row.index(), "Вещь недоступна"));
+                    continue;
+                }
+
+                List<Booking> busy = taken.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                if (busy.stream().anyMatch(b -> b.getStart().isBefore(dto.getEnd()) && b.getEnd().isAfter(dto.getStart()))) {
+                    chunkErrors.add(new BatchError(row.index(), "Вещь уже забронирована на эти даты"));
+                    continue;
+                }
+
+                Booking booking = new Booking();
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStart(dto.getStart());
+                booking.setEnd(dto.getEnd());
+                booking.setStatus(BookingStatus.WAITING);
+                busy.add(booking);
+                bookings.add(booking);
+            }
+            return bookings;
+        }, saved -> saved.forEach(b -> changed(b, BookingEventType.CREATED)));
+
+        result.getCreated().forEach(itemAvailabilityIndex::booked);
+
+        log.info("Пакет бронирований пользователя {}: создано {}, отклонено {}",
+                userId, result.getCreated().size(), result.getErrors().size());
+        return result;
     }
 
     public Booking approve(Long ownerId, Long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Long itemId = bookingRepository.findItemIdById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
 
-        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
-            log.warn("Пользователь {} не является владельцем бронирования {}", ownerId, bookingId);
-            throw new ForbiddenException("Только владелец может подтвердить бронирование");
+        Lock lock = itemLocks.forItem(itemId);
+        lock.lock();
+        try {
+            Booking saved = transactionTemplate.execute(status -> {
+                Item item = itemService.getItemForUpdate(itemId);
+                if (!item.getOwner().getId().equals(ownerId)) {
+                    log.warn("Пользователь {} не является владельцем бронирования {}", ownerId, bookingId);
+                    throw new ForbiddenException("Только владелец может подтвердить бронирование");
+                }
+
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+
+                if (booking.getStatus() != BookingStatus.WAITING) {
+                    log.warn("Бронирование {} уже обработано: {}", bookingId, booking.getStatus());
+                    throw new BadRequestException("Бронирование уже обработано");
+                }
+
+                if (approved && bookingRepository.existsOverlapping(
+                        itemId, booking.getStart(), booking.getEnd(), List.of(BookingStatus.APPROVED), bookingId)) {
+                    log.warn("Бронирование {} пересекается с уже одобренным", bookingId);
+                    throw new ConflictException("Вещь уже забронирована на эти даты");
+                }
+
+                booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+                Booking updated = bookingRepository.save(booking);
+                changed(updated, approved ? BookingEventType.APPROVED : BookingEventType.REJECTED);
+                return updated;
+            });
+            if (approved) {
+                bookingTimelineIndex.approved(saved);
+            } else {
+                itemAvailabilityIndex.released(saved);
+            }
+            return saved;
+        } finally {
+            lock.unlock();
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return bookingRepository.save(booking);
     }
 
+    @Transactional(readOnly = true)
     public Booking get(Long userId, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
@@ -82,14 +264,69 @@ public class BookingServiceImpl implements BookingService {
         return booking;
     }
 
-    public List<Booking> getUserBookings(Long userId) {
-        log.info("Получение всех бронирований пользователя {}", userId);
-        return bookingRepository.findByBookerId(userId, Sort.by(Sort.Direction.DESC, "start"));
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getVersion(Long userId, Long bookingId) {
+        BookingVersion version = bookingRepository.findVersion(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+
+        if (!version.bookerId().equals(userId) && !version.ownerId().equals(userId)) {
+            log.warn("Пользователь {} не имеет доступа к бронированию {}", userId, bookingId);
+            throw new ForbiddenException("Доступ ограничен");
+        }
+        return new ResourceVersion(
+                "booking-" + bookingId + "-" + version.version()
+                        + "-" + version.itemVersion() + "-" + version.bookerVersion(),
+                null);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getUserBookings(Long userId, BookingState state, int from, int size, String cursor) {
+        log.debug("Получение бронирований пользователя {} в состоянии {}", userId, state);
+        Pageable page = page(from, size, cursor);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        return BookingPage.of(switch (state) {
+            case ALL -> bookingRepository.findBookerPage(userId, after.start(), after.id(), page);
+            case CURRENT -> bookingRepository.findBookerCurrentPage(userId, now, after.start(), after.id(), page);
+            case PAST -> bookingRepository.findBookerPastPage(userId, now, after.start(), after.id(), page);
+            case FUTURE -> bookingRepository.findBookerFuturePage(userId, now, after.start(), after.id(), page);
+            case WAITING -> bookingRepository.findBookerPageByStatus(
+                    userId, BookingStatus.WAITING, after.start(), after.id(), page);
+            case REJECTED -> bookingRepository.findBookerPageByStatus(
+                    userId, BookingStatus.REJECTED, after.start(), after.id(), page);
+        }, size);
     }
 
-    public List<Booking> getOwnerBookings(Long ownerId) {
-        log.info("Получение всех бронирований владельца {}", ownerId);
+    @Transactional(readOnly = true)
+    public BookingPage getOwnerBookings(Long ownerId, BookingState state, int from, int size, String cursor) {
+        log.debug("Получение бронирований владельца {} в состоянии {}", ownerId, state);
         userService.get(ownerId);
-        return bookingRepository.findByItemOwnerId(ownerId, Sort.by(Sort.Direction.DESC, "start"));
+        Pageable page = page(from, size, cursor);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        return BookingPage.of(switch (state) {
+            case ALL -> bookingRepository.findOwnerPage(ownerId, after.start(), after.id(), page);
+            case CURRENT -> bookingRepository.findOwnerCurrentPage(ownerId, now, after.start(), after.id(), page);
+            case PAST -> bookingRepository.findOwnerPastPage(ownerId, now, after.start(), after.id(), page);
+            case FUTURE -> bookingRepository.findOwnerFuturePage(ownerId, now, after.start(), after.id(), page);
+            case WAITING -> bookingRepository.findOwnerPageByStatus(
+                    ownerId, BookingStatus.WAITING, after.start(), after.id(), page);
+            case REJECTED -> bookingRepository.findOwnerPageByStatus(
+                    ownerId, BookingStatus.REJECTED, after.start(), after.id(), page);
+        }, size);
+    }
+
+    private void changed(Booking booking, BookingEventType type) {
+        outboxService.bookingChanged(booking, type);
+        eventPublisher.publishEvent(new BookingChangedEvent(
+                booking.getItem().getOwner().getId(), type, BookingMapper.toDto(booking)));
+    }
+
+    private static Pageable page(int from, int size, String cursor) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации");
+        }
+        return cursor == null ? OffsetPageRequest.of(from, size) : PageRequest.of(0, size);
     }
 }
\ No newline at end of file
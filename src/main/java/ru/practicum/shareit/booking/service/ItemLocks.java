@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки по id вещи. Сериализуют бронирования одной вещи
+ * внутри экземпляра приложения до того, как запрос дойдет до блокировки
+ * строки в базе, которая защищает от гонок между экземплярами.
+ */
+@Component
+public class ItemLocks {
+    private final Lock[] stripes;
+
+    public ItemLocks(@Value("${shareit.booking.lock-stripes:256}") int stripes) {
+        this.stripes = new Lock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forItem(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+    }
+}
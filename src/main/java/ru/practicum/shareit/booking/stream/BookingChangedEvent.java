@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.stream;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.outbox.model.BookingEventType;
+
+public record BookingChangedEvent(Long ownerId, BookingEventType type, BookingResponseDto booking) {
+}
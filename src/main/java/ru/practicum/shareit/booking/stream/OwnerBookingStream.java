@@ -0,0 +1,199 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реестр SSE-подписок владельцев. Простаивающее соединение держит только
+ * эмиттер в асинхронном запросе, поток сервлета не занят.
+ * <p>
+ * У каждой подписки своя очередь событий, которую разбирает не больше одной
+ * задачи пула отправки, поэтому медленный клиент занимает не больше одного
+ * потока и не задерживает других владельцев. Очередь пула ограничена: если
+ * она заполнена, событие не ставится, а подписка закрывается — клиент
+ * переподключится и перечитает бронирования. Так же закрывается подписка,
+ * у которой скопилось больше {@code MAX_PENDING} событий или отправка висит
+ * дольше {@code sendTimeout}: поток отправки прерывается, эмиттер
+ * завершается с ошибкой, и подписка больше не получает задач.
+ */
+@Component
+@Slf4j
+public class OwnerBookingStream implements DisposableBean {
+    private static final int MAX_PENDING = 100;
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    public OwnerBookingStream(@Value("${shareit.booking.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.booking.stream.sender-threads:4}") int senderThreads,
+                              @Value("${shareit.booking.stream.queue-capacity:10000}") int queueCapacity,
+                              @Value("${shareit.booking.stream.send-timeout:10s}") Duration sendTimeout) {
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public SseEmitter subscribe(Long ownerId) {
+        Subscription subscription = new Subscription(ownerId, new SseEmitter(timeoutMillis));
+        subscribers.compute(ownerId, (id, subscriptions) -> {
+            Set<Subscription> set = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+        log.debug("Владелец {} подписался на поток бронирований", ownerId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Set<Subscription> subscriptions = subscribers.get(event.ownerId());
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.pendingCount.get() >= MAX_PENDING) {
+                close(subscription, "очередь событий переполнена");
+                continue;
+            }
+            subscription.pendingCount.incrementAndGet();
+            subscription.pending.add(SseEmitter.event()
+                    .id(String.valueOf(event.booking().getId()))
+                    .name(event.type().name())
+                    .data(event.booking()));
+            if (!schedule(subscription)) {
+                close(subscription, "пул отправки переполнен");
+            }
+        }
+    }
+
+    /**
+     * Проверяет зависшие отправки и ставит пинг подпискам, которым сейчас
+     * ничего не отправляется. Сам поток планировщика в сокеты не пишет.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(subscriptions -> subscriptions.forEach(subscription -> {
+            Thread thread = subscription.sendingThread;
+            if (thread != null && now - subscription.sendingSince > sendTimeoutNanos) {
+                close(subscription, "отправка не завершилась за " + Duration.ofNanos(sendTimeoutNanos).toMillis() + " мс");
+                thread.interrupt();
+            } else if (!subscription.scheduled.get()) {
+                subscription.pendingCount.incrementAndGet();
+                subscription.pending.add(SseEmitter.event().comment("ping"));
+                schedule(subscription);
+            }
+        }));
+    }
+
+    public int size() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        subscribers.values().forEach(subscriptions -> subscriptions.forEach(s -> s.emitter.complete()));
+    }
+
+    private boolean schedule(Subscription subscription) {
+        if (!subscription.scheduled.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            sender.execute(() -> drain(subscription));
+            return true;
+        } catch (RejectedExecutionException e) {
+            subscription.scheduled.set(false);
+            return false;
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        SseEmitter.SseEventBuilder event;
+        while (!subscription.closed.get() && (event = subscription.pending.poll()) != null) {
+            subscription.pendingCount.decrementAndGet();
+            subscription.sendingSince = System.nanoTime();
+            subscription.sendingThread = Thread.currentThread();
+            try {
+                subscription.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                remove(subscription);
+                subscription.closed.set(true);
+            } finally {
+                subscription.sendingThread = null;
+                Thread.interrupted();
+            }
+        }
+        subscription.scheduled.set(false);
+        if (!subscription.closed.get() && !subscription.pending.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    /**
+     * Снимает подписку и завершает эмиттер с ошибкой. Завершение ждёт ту же
+     * блокировку эмиттера, что и зависшая запись, поэтому идёт в виртуальном
+     * потоке и не держит ни планировщик, ни пул отправки.
+     */
+    private void close(Subscription subscription, String reason) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        log.warn("Подписка владельца {} закрыта: {}", subscription.ownerId, reason);
+        remove(subscription);
+        subscription.pending.clear();
+        Thread.ofVirtual().start(() ->
+                subscription.emitter.completeWithError(new IOException("Подписка закрыта: " + reason)));
+    }
+
+    private void remove(Subscription subscription) {
+        subscribers.computeIfPresent(subscription.ownerId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private static final class Subscription {
+        private final Long ownerId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread sendingThread;
+        private volatile long sendingSince;
+
+        private Subscription(Long ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.conditional;
+
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Валидаторы представления ресурса для условного GET: сильный ETag и,
+ * если представление зависит только от сохранённых данных, время
+ * последнего изменения.
+ */
+public record ResourceVersion(String etag, LocalDateTime lastModified) {
+
+    /**
+     * Проставляет заголовки {@code ETag} и {@code Last-Modified} и сообщает,
+     * можно ли ответить 304 без тела.
+     */
+    public boolean checkNotModified(WebRequest request) {
+        long lastModifiedMillis = lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+}
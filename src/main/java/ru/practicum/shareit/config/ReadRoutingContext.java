@@ -0,0 +1,74 @@
+package ru.practicum.shareit.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Сведения о текущем запросе, нужные для выбора источника данных: кто
+ * пользователь, меняет ли запрос данные и не требуется ли читать с основной
+ * базы принудительно.
+ */
+public final class ReadRoutingContext {
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    static void bind(Long userId, boolean write, boolean primary) {
+        CURRENT.set(new State(userId, write, primary));
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static State current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Выполняет чтение на основной базе. Нужен там, где прочитанное
+     * кэшируется дольше, чем может отставать реплика. Действует только на
+     * соединения, взятые внутри {@code task}.
+     */
+    public static <T> T onPrimary(Supplier<T> task) {
+        State previous = CURRENT.get();
+        CURRENT.set(previous != null
+                ? new State(previous.userId(), previous.write(), true)
+                : new State(null, false, true));
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Переносит контекст текущего потока в задачу для другого потока.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        State state = CURRENT.get();
+        if (state == null) {
+            return task;
+        }
+        return () -> {
+            State previous = CURRENT.get();
+            CURRENT.set(state);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(State previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    record State(Long userId, boolean write, boolean primary) {
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Связывает запрос с {@link ReadRoutingContext}: изменяющие запросы целиком
+ * работают с основной базой, а после записи пользователь на время окна
+ * читает оттуда же. Время записи уходит клиенту в cookie, поэтому следующее
+ * чтение попадёт на основную базу на любом узле. Клиентам, которые не
+ * возвращают cookie, нужна привязка к узлу на балансировщике: без неё
+ * остаётся только локальный учёт по пользователю.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.datasource.replica.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadRoutingInterceptor implements AsyncHandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    static final String WRITE_COOKIE = "shareit-last-write";
+
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean write = isWrite(request);
+        if (write) {
+            // Ставится до обработчика: после него ответ может быть уже отправлен.
+            markWrite(response);
+        }
+        ReadRoutingContext.bind(userId(request), write, recentlyWrote(request));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadRoutingContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRoutingContext.State state = ReadRoutingContext.current();
+        if (state != null && state.write() && state.userId() != null && ex == null && response.getStatus() < 400) {
+            tracker.wrote(state.userId());
+        }
+        ReadRoutingContext.clear();
+    }
+
+    private void markWrite(HttpServletResponse response) {
+        Cookie cookie = new Cookie(WRITE_COOKIE, String.valueOf(System.currentTimeMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, tracker.window().toSeconds()));
+        response.addCookie(cookie);
+    }
+
+    private boolean recentlyWrote(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (WRITE_COOKIE.equals(cookie.getName())) {
+                try {
+                    long age = System.currentTimeMillis() - Long.parseLong(cookie.getValue());
+                    return Math.abs(age) < tracker.window().toMillis();
+                } catch (NumberFormatException ignore) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException ignore) {
+            return null;
+        }
+    }
+}
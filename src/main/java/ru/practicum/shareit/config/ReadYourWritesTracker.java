@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно менявшие данные. Пока окно не истекло, их чтения
+ * идут на основную базу, чтобы отставание реплики не скрыло их же запись.
+ * Учёт локален для узла; между узлами запись переносит cookie, которую
+ * ставит {@link ReadRoutingInterceptor}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> recentWriters;
+    private final Duration window;
+
+    public ReadYourWritesTracker(@Value("${shareit.datasource.replica.sticky-window:5s}") Duration window) {
+        this.window = window;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void wrote(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    public boolean isSticky(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Основная база настраивается как обычно через {@code spring.datasource.*},
+ * реплика — через {@code shareit.datasource.replica.*} с теми же ключами.
+ * Пулы не регистрируются как бины: в контексте остаётся единственный
+ * {@link DataSource}. В режиме виртуальных потоков семафор ставится перед
+ * каждым пулом отдельно, а не перед маршрутизирующим источником.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaPools replicaPools(DataSourceProperties primaryProperties,
+                                     Environment environment,
+                                     MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties replicaProperties = binder
+                .bind("shareit.datasource.replica", DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("Не заданы свойства shareit.datasource.replica"));
+
+        return new ReplicaPools(
+                pool(primaryProperties, binder, "spring.datasource.hikari", "shareit-primary", meterRegistry),
+                pool(replicaProperties, binder, "shareit.datasource.replica.hikari", "shareit-replica", meterRegistry)
+        );
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaPools pools,
+                                 ReadYourWritesTracker tracker,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        boolean gated = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                gated ? VirtualThreadsConfig.gate(pools.primary(), environment) : pools.primary(),
+                gated ? VirtualThreadsConfig.gate(pools.replica(), environment) : pools.replica(),
+                tracker, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties,
+                                         Binder binder,
+                                         String hikariPrefix,
+                                         String name,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    public record ReplicaPools(HikariDataSource primary, HikariDataSource replica) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+}
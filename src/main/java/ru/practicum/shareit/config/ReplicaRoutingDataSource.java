@@ -0,0 +1,52 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Направляет соединения читающих транзакций на реплику, остальные — на
+ * основную базу. Решение принимается при получении соединения, поэтому
+ * источник оборачивается в {@code LazyConnectionDataSourceProxy}: к этому
+ * моменту признак readOnly транзакции уже выставлен.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReadYourWritesTracker tracker;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    DataSource replica,
+                                    ReadYourWritesTracker tracker,
+                                    MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.primaryConnections = meterRegistry.counter("shareit.datasource.routing", "target", "primary");
+        this.replicaConnections = meterRegistry.counter("shareit.datasource.routing", "target", "replica");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !requiresPrimary()) {
+            replicaConnections.increment();
+            return Target.REPLICA;
+        }
+        primaryConnections.increment();
+        return Target.PRIMARY;
+    }
+
+    private boolean requiresPrimary() {
+        ReadRoutingContext.State state = ReadRoutingContext.current();
+        return state != null && (state.primary() || state.write() || tracker.isSticky(state.userId()));
+    }
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+}
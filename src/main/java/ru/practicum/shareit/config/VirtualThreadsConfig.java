@@ -0,0 +1,46 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков включается стандартным свойством
+ * {@code spring.threads.virtual.enabled}: Tomcat и исполнители {@code @Async}
+ * переходят на виртуальные потоки. Чтобы тысячи запросов не выстраивались
+ * в очередь внутри пула Hikari, перед каждым пулом ставится свой семафор.
+ * Оборачиваются только сами пулы: маршрутизирующий источник над основной
+ * базой и репликой не держит соединений и семафор на нём делил бы одно
+ * разрешение на два пула.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor gatedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return gate(pool, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static DataSource gate(HikariDataSource pool, Environment environment) {
+        int permits = environment.getProperty("shareit.jdbc.max-concurrency", Integer.class,
+                pool.getMaximumPoolSize());
+        Duration timeout = environment.getProperty("shareit.jdbc.acquire-timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return new GatedDataSource(pool, permits, timeout);
+    }
+}
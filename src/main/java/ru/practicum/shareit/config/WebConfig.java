@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.logging.LogSamplingInterceptor;
+import ru.practicum.shareit.metrics.RequestMetricsInterceptor;
+import ru.practicum.shareit.throttle.ThrottlingInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final LogSamplingInterceptor logSamplingInterceptor;
+    private final ThrottlingInterceptor throttlingInterceptor;
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+    private final ObjectProvider<ReadRoutingInterceptor> readRoutingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Выборка логов решается первой, чтобы под неё попадали и отказы ограничителя.
+        registry.addInterceptor(logSamplingInterceptor);
+        // Отклонённые запросы не попадают в таймер обработки, иначе быстрые
+        // отказы занижали бы задержку, по которой принимается решение о сбросе.
+        registry.addInterceptor(throttlingInterceptor);
+        registry.addInterceptor(requestMetricsInterceptor);
+        readRoutingInterceptor.ifAvailable(registry::addInterceptor);
+    }
+}
@@ -0,0 +1,192 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.idempotency.store.IdempotencyStore;
+import ru.practicum.shareit.idempotency.store.StoredResponse;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет создающий запрос не более одного раза на ключ из заголовка
+ * {@code Idempotency-Key}. Повтор получает сохранённый ответ, не доходя до
+ * сервиса. Перед выполнением ключ занимается в хранилище; одновременный дубль
+ * на этом узле ждёт первое выполнение, на другом — опрашивает хранилище до
+ * появления ответа и получает 409, если не дождался. Ключ действует в
+ * пределах пользователя и вида запроса, а повтор с другим телом отклоняется.
+ * Ошибки не сохраняются: после неё ключ освобождается и запрос можно повторить.
+ */
+@Component
+@Slf4j
+public class IdempotencyGuard {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyGuard(IdempotencyStore store,
+                            ObjectMapper objectMapper,
+                            @Value("${shareit.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+    }
+
+    public <T> T execute(String scope,
+                         Long userId,
+                         String key,
+                         Object request,
+                         Class<T> responseType,
+                         Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Некорректный ключ идемпотентности");
+        }
+
+        String storeKey = scope + ':' + userId + ':' + key;
+        String fingerprint = fingerprint(request);
+        Optional<StoredResponse> stored = store.find(storeKey);
+        if (stored.isPresent() && !stored.get().isPending()) {
+            return replay(storeKey, stored.get(), fingerprint, responseType);
+        }
+
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(storeKey, own);
+        if (running != null) {
+            log.debug("Запрос с ключом {} уже выполняется, ожидание", storeKey);
+            return replay(storeKey, await(running), fingerprint, responseType);
+        }
+
+        try {
+            StoredResponse done = claimOrAwait(storeKey, fingerprint);
+            if (done != null) {
+                own.complete(done);
+                return replay(storeKey, done, fingerprint, responseType);
+            }
+
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(storeKey);
+                throw e;
+            }
+            StoredResponse result = new StoredResponse(fingerprint, write(response));
+            try {
+                store.complete(storeKey, result);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось сохранить ответ для ключа {}: {}", storeKey, e.getMessage());
+            }
+            own.complete(result);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storeKey, own);
+        }
+    }
+
+    private <T> T replay(String storeKey, StoredResponse stored, String fingerprint, Class<T> responseType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            log.warn("Ключ {} повторно использован с другим запросом", storeKey);
+            throw new ConflictException("Ключ идемпотентности уже использован с другим запросом");
+        }
+        log.debug("Повтор запроса с ключом {}, возвращён сохранённый ответ", storeKey);
+        try {
+            return objectMapper.readValue(stored.body(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ " + storeKey, e);
+        }
+    }
+
+    /**
+     * Занимает ключ и возвращает {@code null} либо дожидается ответа того,
+     * кто занял ключ раньше. Если тот освободил ключ после ошибки, ключ
+     * занимается снова.
+     */
+    private StoredResponse claimOrAwait(String storeKey, String fingerprint) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (!store.claim(storeKey, fingerprint)) {
+            Optional<StoredResponse> stored = store.find(storeKey);
+            if (stored.isPresent()) {
+                if (!stored.get().isPending() || !stored.get().fingerprint().equals(fingerprint)) {
+                    return stored.get();
+                }
+                log.debug("Запрос с ключом {} выполняется на другом узле, ожидание", storeKey);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+            }
+        }
+        return null;
+    }
+
+    private void release(String storeKey) {
+        try {
+            store.release(storeKey);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось освободить ключ {}: {}", storeKey, e.getMessage());
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Не удалось вычислить отпечаток запроса", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.idempotency.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    Optional<IdempotencyRecord> findByKeyAndCreatedAfter(String key, LocalDateTime created);
+
+    /**
+     * Вставляет запись без ответа; 0 — ключ уже занят.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into idempotency_keys (idempotency_key, fingerprint, body, created)
+            values (:key, :fingerprint, null, :created)
+            on conflict (idempotency_key) do nothing
+            """, nativeQuery = true)
+    int insertPending(String key, String fingerprint, LocalDateTime created);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.body = :body, r.created = :created where r.key = :key")
+    int complete(String key, String body, LocalDateTime created);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.body is null")
+    int deletePending(String key);
+
+    /**
+     * Удаляет просроченную запись ключа и запись без ответа, брошенную
+     * упавшим узлом, чтобы ключ можно было занять заново.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            delete from IdempotencyRecord r
+            where r.key = :key
+            and (r.created < :expired or (r.body is null and r.created < :abandoned))
+            """)
+    int deleteStale(String key, LocalDateTime expired, LocalDateTime abandoned);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.created < :created")
+    int deleteCreatedBefore(LocalDateTime created);
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.idempotency.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.ReadRoutingContext;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRecordRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Хранит ответы в таблице {@code idempotency_keys}, чтобы повтор запроса
+ * узнавался на любом узле и после перезапуска. Ключ занимается вставкой
+ * записи без ответа до выполнения запроса, поэтому из одновременных дублей
+ * на разных узлах выполняется только один. Запись без ответа старше
+ * {@code abandonAfter} считается брошенной упавшим узлом и занимается заново.
+ * Просроченные записи удаляются по расписанию.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "database")
+@Slf4j
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration abandonAfter;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository,
+                                    @Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${shareit.idempotency.abandon-after:5m}") Duration abandonAfter) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.abandonAfter = abandonAfter;
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        LocalDateTime notBefore = LocalDateTime.now().minus(ttl);
+        return ReadRoutingContext.onPrimary(() -> repository.findByKeyAndCreatedAfter(key, notBefore))
+                .map(row -> new StoredResponse(row.getFingerprint(), row.getBody()));
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.deleteStale(key, now.minus(ttl), now.minus(abandonAfter));
+        return repository.insertPending(key, fingerprint, now) == 1;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        repository.complete(key, response.body(), LocalDateTime.now());
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deletePending(key);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        int removed = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (removed > 0) {
+            log.debug("Удалено {} просроченных ключей идемпотентности", removed);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.idempotency.store;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    Optional<StoredResponse> find(String key);
+
+    /**
+     * Атомарно занимает ключ записью без ответа. {@code false} — ключ уже
+     * занят: запрос выполняется или выполнен другим вызовом.
+     */
+    boolean claim(String key, String fingerprint);
+
+    /**
+     * Сохраняет ответ в занятый ключ.
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Освобождает занятый ключ после ошибки, чтобы запрос можно было повторить.
+     */
+    void release(String key);
+}
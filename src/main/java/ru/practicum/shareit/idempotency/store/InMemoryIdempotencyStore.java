@@ -0,0 +1,44 @@
+package ru.practicum.shareit.idempotency.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Cache<String, StoredResponse> responses;
+
+    public InMemoryIdempotencyStore(@Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${shareit.idempotency.memory.max-size:100000}") long maxSize) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        return responses.asMap().putIfAbsent(key, StoredResponse.pending(fingerprint)) == null;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        responses.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        responses.asMap().computeIfPresent(key, (k, stored) -> stored.isPending() ? null : stored);
+    }
+}
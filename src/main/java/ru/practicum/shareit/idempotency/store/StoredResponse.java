@@ -0,0 +1,16 @@
+package ru.practicum.shareit.idempotency.store;
+
+/**
+ * Сохранённый ответ: отпечаток тела запроса, по которому он получен, и
+ * сам ответ в JSON. Пока запрос выполняется, ответа ещё нет.
+ */
+public record StoredResponse(String fingerprint, String body) {
+
+    public static StoredResponse pending(String fingerprint) {
+        return new StoredResponse(fingerprint, null);
+    }
+
+    public boolean isPending() {
+        return body == null;
+    }
+}
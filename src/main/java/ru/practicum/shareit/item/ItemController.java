@@ -2,15 +2,21 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.idempotency.IdempotencyGuard;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
-import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.mapper.ItemViewMapper;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,12 +28,23 @@ public class ItemController {
     private static final String USER_HEADER = "X-Sharer-User-Id";
 
     private final ItemService itemService;
+    private final ItemViewMapper itemViewMapper;
+    private final IdempotencyGuard idempotencyGuard;
 
     @PostMapping
     public ItemDto create(@RequestHeader(USER_HEADER) Long userId,
+                          @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
                           @RequestBody ItemDto dto) {
         log.info("Создание вещи пользователем {}: {}", userId, dto);
-        return ItemMapper.toItemDto(itemService.create(userId, dto));
+        return idempotencyGuard.execute("items", userId, idempotencyKey, dto, ItemDto.class,
+                () -> ItemMapper.toItemDto(itemService.create(userId, dto)));
+    }
+
+    @PostMapping("/batch")
+    public BatchResult<ItemDto> createBatch(@RequestHeader(USER_HEADER) Long userId,
+                                            @RequestBody List<ItemDto> dtos) {
+        log.info("Пакетное создание {} вещей пользователем {}", dtos.size(), userId);
+        return itemService.createBatch(userId, dtos).map(ItemMapper::toItemDto);
     }
 
     @PatchMapping("/{itemId}")
@@ -40,8 +57,12 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemWithBookingsDto get(@RequestHeader(USER_HEADER) Long userId,
-                                   @PathVariable Long itemId) {
+                                   @PathVariable Long itemId,
+                                   WebRequest request) {
         log.info("Получение вещи {} пользователем {}", itemId, userId);
+        if (itemService.getVersion(userId, itemId).checkNotModified(request)) {
+            return null;
+        }
         return itemService.get(userId, itemId);
     }
 
@@ -51,6 +72,14 @@ public class ItemController {
         return itemService.getOwnerItems(userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilitySlotDto> availability(@PathVariable Long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Получение свободных окон вещи {} с {} по {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> search(@RequestParam String text) {
         log.info("Поиск вещей по тексту: '{}'", text);
@@ -65,7 +94,7 @@ public class ItemController {
                                  @PathVariable Long itemId,
                                  @RequestBody CommentRequestDto dto) {
         log.info("Добавление комментария к вещи {} пользователем {}: {}", itemId, userId, dto.getText());
-        return CommentMapper.toDto(
+        return itemViewMapper.toCommentDto(
                 itemService.addComment(userId, itemId, dto.getText())
         );
     }
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Дерево интервалов занятости одной вещи: декартово дерево по ключу
+ * (начало, id бронирования), каждый узел хранит наибольшее окончание в своём
+ * поддереве. Интервалы полуоткрытые, время — микросекунды от эпохи.
+ * Вставка, удаление и проверка пересечения — O(log n) в среднем; повторная
+ * вставка того же бронирования ничего не меняет.
+ */
+final class BookingIntervalTree {
+    private Node root;
+    private int size;
+
+    synchronized void add(long bookingId, long start, long end) {
+        if (contains(start, bookingId)) {
+            return;
+        }
+        Node node = new Node(bookingId, start, end);
+        Node[] parts = split(root, start, bookingId);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    synchronized void remove(long bookingId, long start) {
+        root = remove(root, start, bookingId);
+    }
+
+    synchronized boolean overlaps(long start, long end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start < end && node.end > start) {
+                return true;
+            }
+            node = node.left != null && node.left.maxEnd > start ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Передаёт в {@code consumer} пересекающие {@code [from, to)} интервалы в
+     * порядке начала.
+     */
+    synchronized void forEachOverlapping(long from, long to, BiConsumer<Long, Long> consumer) {
+        visit(root, from, to, consumer);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private boolean contains(long start, long bookingId) {
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(start, bookingId, node);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    private static void visit(Node node, long from, long to, BiConsumer<Long, Long> consumer) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        visit(node.left, from, to, consumer);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            consumer.accept(node.start, node.end);
+        }
+        visit(node.right, from, to, consumer);
+    }
+
+    private Node remove(Node node, long start, long bookingId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, bookingId, node);
+        if (cmp == 0) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, start, bookingId);
+        } else {
+            node.right = remove(node.right, start, bookingId);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Делит дерево на ключи меньше (start, id) и не меньше.
+     */
+    private static Node[] split(Node node, long start, long bookingId) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(start, bookingId, node) > 0) {
+            Node[] parts = split(node.right, start, bookingId);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, bookingId);
+        node.left = parts[1];
+        node.update();
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int compare(long start, long bookingId, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(bookingId, node.id);
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            long max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
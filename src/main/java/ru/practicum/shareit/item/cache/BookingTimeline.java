@@ -0,0 +1,136 @@
+package ru.practicum.shareit.item.cache;
+
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Одобренные бронирования одной вещи, отсортированные по началу, в
+ * примитивных массивах. Время хранится в микросекундах от эпохи.
+ * {@code lastByEnd[i]} — индекс бронирования с наибольшим окончанием среди
+ * первых {@code i + 1}, поэтому «последнее» и «следующее» ищутся двоичным
+ * поиском. Экземпляр неизменяем, добавление возвращает копию.
+ */
+public final class BookingTimeline {
+    public static final BookingTimeline EMPTY = new BookingTimeline(new long[0], new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] bookerIds;
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] lastByEnd;
+
+    private BookingTimeline(long[] ids, long[] bookerIds, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.bookerIds = bookerIds;
+        this.starts = starts;
+        this.ends = ends;
+        this.lastByEnd = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lastByEnd[i] = i > 0 && ends[lastByEnd[i - 1]] > ends[i] ? lastByEnd[i - 1] : i;
+        }
+    }
+
+    /**
+     * @param rows бронирования одной вещи, отсортированные по началу и id
+     */
+    public static BookingTimeline of(List<BookingTimelineRow> rows) {
+        if (rows.isEmpty()) {
+            return EMPTY;
+        }
+        int size = rows.size();
+        long[] ids = new long[size];
+        long[] bookerIds = new long[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            BookingTimelineRow row = rows.get(i);
+            ids[i] = row.id();
+            bookerIds[i] = row.bookerId();
+            starts[i] = EpochMicros.of(row.start());
+            ends[i] = EpochMicros.of(row.end());
+        }
+        return new BookingTimeline(ids, bookerIds, starts, ends);
+    }
+
+    /**
+     * Возвращает шкалу с добавленным бронированием; если оно уже есть
+     * (например, попало в загрузку из базы), возвращает эту же шкалу.
+     */
+    public BookingTimeline with(BookingTimelineRow row) {
+        long start = EpochMicros.of(row.start());
+        int at = upperBound(start);
+        for (int i = lowerBound(start); i < at; i++) {
+            if (ids[i] == row.id()) {
+                return this;
+            }
+        }
+        return new BookingTimeline(
+                insert(ids, at, row.id()),
+                insert(bookerIds, at, row.bookerId()),
+                insert(starts, at, start),
+                insert(ends, at, EpochMicros.of(row.end()))
+        );
+    }
+
+    /**
+     * Бронирование с наибольшим окончанием среди начавшихся до {@code now}.
+     */
+    public BookingShortDto last(LocalDateTime now) {
+        int started = lowerBound(EpochMicros.of(now));
+        if (started == 0) {
+            return null;
+        }
+        int i = lastByEnd[started - 1];
+        return new BookingShortDto(ids[i], bookerIds[i]);
+    }
+
+    /**
+     * Ближайшее бронирование, начинающееся после {@code now}.
+     */
+    public BookingShortDto next(LocalDateTime now) {
+        int i = upperBound(EpochMicros.of(now));
+        return i < ids.length ? new BookingShortDto(ids[i], bookerIds[i]) : null;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    private int lowerBound(long time) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(long time) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long[] insert(long[] source, int at, long value) {
+        long[] result = Arrays.copyOf(source, source.length + 1);
+        System.arraycopy(source, at, result, at + 1, source.length - at);
+        result[at] = value;
+        return result;
+    }
+}
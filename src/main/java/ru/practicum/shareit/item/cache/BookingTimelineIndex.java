@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.ReadRoutingContext;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Временные шкалы одобренных бронирований по вещам. Размер ограничен общим
+ * числом бронирований во всех шкалах; вытесненные и не загруженные при старте
+ * вещи подгружаются из базы при первом обращении. Одобрение на этом узле
+ * дописывает бронирование в уже загруженную шкалу; одобрения с других узлов
+ * становятся видны после истечения срока шкалы. Шкалы читаются с основной базы.
+ * <p>
+ * Пакетная загрузка не блокирует ключи на время запроса, поэтому одобрение,
+ * зафиксированное между запросом и записью в кэш, могло бы потеряться. Каждое
+ * одобрение увеличивает счётчик своей полосы; если счётчик изменился за время
+ * пакетного запроса, вещь перечитывается поштучно под блокировкой ключа.
+ */
+@Component
+@Slf4j
+public class BookingTimelineIndex {
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, BookingTimeline> timelines;
+    private final long maxBookings;
+    private final AtomicLongArray approvals = new AtomicLongArray(STRIPES);
+
+    public BookingTimelineIndex(BookingRepository bookingRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.cache.booking-timeline.max-bookings:1000000}") long maxBookings,
+                                @Value("${shareit.cache.booking-timeline.ttl:5m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.maxBookings = maxBookings;
+        this.timelines = Caffeine.newBuilder()
+                .maximumWeight(maxBookings)
+                .weigher((Long itemId, BookingTimeline timeline) -> 1 + timeline.size())
+                .expireAfter(new LoadTimeExpiry<Long, BookingTimeline>(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "bookingTimeline");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastItemId = 0;
+        long loaded = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = bookingRepository.findApprovedItemIdsAfter(
+                    lastItemId, BookingStatus.APPROVED, PageRequest.of(0, WARM_UP_BATCH_SIZE));
+            Map<Long, BookingTimeline> batch = loadMissing(itemIds);
+            loaded += batch.values().stream().mapToLong(t -> 1 + t.size()).sum();
+            if (!itemIds.isEmpty()) {
+                lastItemId = itemIds.getLast();
+            }
+        } while (itemIds.size() == WARM_UP_BATCH_SIZE && loaded < maxBookings);
+        log.info("Загружены шкалы бронирований: {} вещей", timelines.estimatedSize());
+    }
+
+    public BookingTimeline get(Long itemId) {
+        return timelines.get(itemId, id -> loadAll(List.of(id)).get(id));
+    }
+
+    public Map<Long, BookingTimeline> getAll(Collection<Long> itemIds) {
+        Map<Long, BookingTimeline> result = new HashMap<>(timelines.getAllPresent(itemIds));
+        List<Long> missing = itemIds.stream()
+                .filter(id -> !result.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            result.putAll(loadMissing(missing));
+        }
+        return result;
+    }
+
+    /**
+     * Вызывается после фиксации одобрения. Если шкала вещи сейчас
+     * загружается, вызов дождётся загрузки и дополнит её результат.
+     */
+    public void approved(Booking booking) {
+        BookingTimelineRow row = new BookingTimelineRow(booking.getId(), booking.getItem().getId(),
+                booking.getBooker().getId(), booking.getStart(), booking.getEnd());
+        approvals.incrementAndGet(stripe(row.itemId()));
+        // compute, а не computeIfPresent: у Caffeine computeIfPresent не ждёт
+        // идущей загрузки ключа и при отсутствии значения сразу возвращается.
+        timelines.asMap().compute(row.itemId(), (itemId, timeline) -> timeline == null ? null : timeline.with(row));
+    }
+
+    private Map<Long, BookingTimeline> loadMissing(List<Long> itemIds) {
+        long[] before = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            before[i] = approvals.get(i);
+        }
+        Map<Long, BookingTimeline> loaded = loadAll(itemIds);
+
+        Map<Long, BookingTimeline> result = new HashMap<>(itemIds.size() * 2);
+        for (Long itemId : itemIds) {
+            int stripe = stripe(itemId);
+            BookingTimeline timeline = timelines.asMap().compute(itemId, (id, current) -> {
+                if (current != null) {
+                    return current;
+                }
+                return approvals.get(stripe) == before[stripe] ? loaded.get(id) : null;
+            });
+            result.put(itemId, timeline != null ? timeline : get(itemId));
+        }
+        return result;
+    }
+
+    private static int stripe(Long itemId) {
+        return Long.hashCode(itemId) & (STRIPES - 1);
+    }
+
+    private Map<Long, BookingTimeline> loadAll(Collection<? extends Long> itemIds) {
+        Map<Long, List<BookingTimelineRow>> rows = ReadRoutingContext.onPrimary(() -> bookingRepository
+                        .findApprovedTimeline(List.copyOf(itemIds), BookingStatus.APPROVED))
+                .stream()
+                .collect(Collectors.groupingBy(BookingTimelineRow::itemId));
+
+        Map<Long, BookingTimeline> result = new HashMap<>(itemIds.size() * 2);
+        for (Long itemId : itemIds) {
+            result.put(itemId, BookingTimeline.of(rows.getOrDefault(itemId, List.of())));
+        }
+        return result;
+    }
+}
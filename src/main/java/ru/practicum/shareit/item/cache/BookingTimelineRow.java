@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.cache;
+
+import java.time.LocalDateTime;
+
+public record BookingTimelineRow(Long id, Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+}
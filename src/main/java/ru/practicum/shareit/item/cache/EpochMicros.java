@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.cache;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Перевод дат бронирований в микросекунды от эпохи для примитивных индексов.
+ * Даты в базе без часового пояса, поэтому смещение везде одно — UTC.
+ */
+final class EpochMicros {
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private EpochMicros() {
+    }
+
+    static long of(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime toLocalDateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.ReadRoutingContext;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Деревья занятости вещей по бронированиям в статусах WAITING и APPROVED.
+ * Дерево загружается при первой попытке бронирования вещи и дальше
+ * поддерживается {@code BookingServiceImpl}; для остальных вещей свободные
+ * окна считаются по выборке бронирований из базы за запрошенный период.
+ * Изменения с других узлов в дерево не попадают, поэтому оно перечитывается
+ * не реже раза в {@code ttl} и служит только подсказкой: занятость по нему
+ * перед отказом перепроверяется в базе.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private static final List<BookingStatus> OCCUPYING = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, BookingIntervalTree> trees;
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.cache.item-availability.max-bookings:1000000}") long maxBookings,
+                                 @Value("${shareit.cache.item-availability.ttl:5m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.trees = Caffeine.newBuilder()
+                .maximumWeight(maxBookings)
+                .weigher((Long itemId, BookingIntervalTree tree) -> 1 + tree.size())
+                .expireAfter(new LoadTimeExpiry<Long, BookingIntervalTree>(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, "itemAvailability");
+    }
+
+    /**
+     * Пересекается ли период с занятостью вещи. Дерево загружается при
+     * промахе; бронирования, закончившиеся до загрузки, в нём не хранятся,
+     * поэтому проверка верна для периодов, начинающихся не раньше текущего
+     * момента.
+     */
+    public boolean isBusy(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return trees.get(itemId, this::load).overlaps(EpochMicros.of(start), EpochMicros.of(end));
+    }
+
+    public List<AvailabilitySlotDto> freeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<long[]> busy = new ArrayList<>();
+        long fromMicros = EpochMicros.of(from);
+        long toMicros = EpochMicros.of(to);
+
+        BookingIntervalTree tree = trees.getIfPresent(itemId);
+        if (tree != null) {
+            tree.forEachOverlapping(fromMicros, toMicros, (start, end) -> busy.add(new long[]{start, end}));
+        } else {
+            bookingRepository.findOverlapping(List.of(itemId), from, to, OCCUPYING)
+                    .stream()
+                    .map(b -> new long[]{EpochMicros.of(b.getStart()), EpochMicros.of(b.getEnd())})
+                    .sorted((a, b) -> Long.compare(a[0], b[0]))
+                    .forEach(busy::add);
+        }
+
+        List<AvailabilitySlotDto> slots = new ArrayList<>(busy.size() + 1);
+        long cursor = fromMicros;
+        for (long[] interval : busy) {
+            if (interval[0] > cursor) {
+                slots.add(slot(cursor, interval[0]));
+            }
+            cursor = Math.max(cursor, interval[1]);
+        }
+        if (cursor < toMicros) {
+            slots.add(slot(cursor, toMicros));
+        }
+        return slots;
+    }
+
+    /**
+     * Вызывается после фиксации нового бронирования.
+     */
+    public void booked(Booking booking) {
+        update(booking, true);
+    }
+
+    /**
+     * Вызывается после фиксации отказа: бронирование больше не занимает вещь.
+     */
+    public void released(Booking booking) {
+        update(booking, false);
+    }
+
+    /**
+     * Сбрасывает дерево, разошедшееся с базой; следующее обращение загрузит его заново.
+     */
+    public void invalidate(Long itemId) {
+        trees.invalidate(itemId);
+    }
+
+    private void update(Booking booking, boolean occupied) {
+        long start = EpochMicros.of(booking.getStart());
+        long end = EpochMicros.of(booking.getEnd());
+        // compute ждёт идущей загрузки дерева, computeIfPresent у Caffeine её пропускает.
+        trees.asMap().compute(booking.getItem().getId(), (itemId, tree) -> {
+            if (tree == null) {
+                return null;
+            }
+            if (occupied) {
+                tree.add(booking.getId(), start, end);
+            } else {
+                tree.remove(booking.getId(), start);
+            }
+            return tree;
+        });
+    }
+
+    private BookingIntervalTree load(Long itemId) {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        List<BookingTimelineRow> rows = ReadRoutingContext.onPrimary(() -> bookingRepository
+                .findOccupiedAfter(itemId, OCCUPYING, LocalDateTime.now()));
+        for (BookingTimelineRow row : rows) {
+            tree.add(row.id(), EpochMicros.of(row.start()), EpochMicros.of(row.end()));
+        }
+        return tree;
+    }
+
+    private static AvailabilitySlotDto slot(long start, long end) {
+        return new AvailabilitySlotDto(EpochMicros.toLocalDateTime(start), EpochMicros.toLocalDateTime(end));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш публичной части {@code ItemWithBookingsDto}: вещь и комментарии.
+ * Бронирования для владельца берутся из {@link BookingTimelineIndex}.
+ */
+@Component
+public class ItemDetailCache {
+    private final Cache<Long, ItemDetails> details;
+
+    public ItemDetailCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.cache.item-details.max-size:10000}") long maxSize,
+                           @Value("${shareit.cache.item-details.ttl:10m}") Duration detailsTtl) {
+        details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(detailsTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "itemDetails");
+    }
+
+    public ItemDetails getDetails(Long itemId, Function<Long, ItemDetails> loader) {
+        return details.get(itemId, loader);
+    }
+
+    public ItemDetails peek(Long itemId) {
+        return details.getIfPresent(itemId);
+    }
+
+    public void evict(Long itemId) {
+        details.invalidate(itemId);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.cache;
+
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.util.List;
+
+public record ItemDetails(Long id,
+                          Long ownerId,
+                          String name,
+                          String description,
+                          Boolean available,
+                          Long requestId,
+                          Long version,
+                          List<CommentDto> comments) {
+}
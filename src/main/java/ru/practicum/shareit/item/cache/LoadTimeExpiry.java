@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * Срок жизни записи отсчитывается от загрузки из базы. Правки на месте
+ * ({@code compute} после изменений на этом узле) срок не продлевают,
+ * иначе часто меняющаяся запись не перечитывалась бы и не видела изменений
+ * с других узлов.
+ */
+final class LoadTimeExpiry<K, V> implements Expiry<K, V> {
+    private final long ttlNanos;
+
+    LoadTimeExpiry(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
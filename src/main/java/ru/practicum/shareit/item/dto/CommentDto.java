@@ -1,15 +1,9 @@
 package ru.practicum.shareit.item.dto;
 
-import lombok.Getter;
-import lombok.Setter;
-
 import java.time.LocalDateTime;
 
-@Getter
-@Setter
-public class CommentDto {
-    private Long id;
-    private String text;
-    private String authorName;
-    private LocalDateTime created;
-}
\ No newline at end of file
+public record CommentDto(Long id,
+                         String text,
+                         String authorName,
+                         LocalDateTime created) {
+}
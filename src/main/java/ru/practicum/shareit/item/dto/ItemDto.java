@@ -20,4 +20,6 @@ public class ItemDto {
     private Boolean available;
 
     private Long id;
+
+    private Long requestId;
 }
\ No newline at end of file
@@ -1,16 +1,15 @@
 package ru.practicum.shareit.item.dto;
 
-import lombok.Getter;
-import lombok.Setter;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 
 import java.util.List;
 
-@Getter
-@Setter
-public class ItemWithBookingsDto extends ItemDto {
-    private BookingShortDto lastBooking;
-    private BookingShortDto nextBooking;
-    private List<CommentDto> comments;
+public record ItemWithBookingsDto(Long id,
+                                  String name,
+                                  String description,
+                                  Boolean available,
+                                  Long requestId,
+                                  BookingShortDto lastBooking,
+                                  BookingShortDto nextBooking,
+                                  List<CommentDto> comments) {
 }
-
@@ -1,16 +0,0 @@
-package ru.practicum.shareit.item.mapper;
-
-import ru.practicum.shareit.item.dto.CommentDto;
-import ru.practicum.shareit.item.model.Comment;
-
-public class CommentMapper {
-
-    public static CommentDto toDto(Comment comment) {
-        CommentDto dto = new CommentDto();
-        dto.setId(comment.getId());
-        dto.setText(comment.getText());
-        dto.setAuthorName(comment.getAuthor().getName());
-        dto.setCreated(comment.getCreated());
-        return dto;
-    }
-}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.cache.ItemDetails;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookingsView;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Представления вещей и отзывов для ответов API. Реализацию генерирует
+ * MapStruct при компиляции: обычные вызовы геттеров без рефлексии, списки
+ * создаются сразу нужного размера.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ItemViewMapper {
+
+    @Mapping(target = "authorName", source = "author.name")
+    CommentDto toCommentDto(Comment comment);
+
+    List<CommentDto> toCommentDtos(List<Comment> comments);
+
+    @Mapping(target = "id", source = "item.id")
+    @Mapping(target = "requestId", source = "item.request.id")
+    @Mapping(target = "lastBooking", source = "lastBooking")
+    @Mapping(target = "nextBooking", source = "nextBooking")
+    @Mapping(target = "comments", source = "comments", qualifiedByName = "shared")
+    ItemWithBookingsDto toItemWithBookingsDto(Item item,
+                                              BookingShortDto lastBooking,
+                                              BookingShortDto nextBooking,
+                                              List<CommentDto> comments);
+
+    @Mapping(target = "id", source = "view.id")
+    @Mapping(target = "lastBooking", source = "lastBooking")
+    @Mapping(target = "nextBooking", source = "nextBooking")
+    @Mapping(target = "comments", source = "comments", qualifiedByName = "shared")
+    ItemWithBookingsDto toItemWithBookingsDto(ItemBookingsView view,
+                                              BookingShortDto lastBooking,
+                                              BookingShortDto nextBooking,
+                                              List<CommentDto> comments);
+
+    @Mapping(target = "id", source = "details.id")
+    @Mapping(target = "lastBooking", source = "lastBooking")
+    @Mapping(target = "nextBooking", source = "nextBooking")
+    @Mapping(target = "comments", source = "details.comments", qualifiedByName = "shared")
+    ItemWithBookingsDto toItemWithBookingsDto(ItemDetails details,
+                                              BookingShortDto lastBooking,
+                                              BookingShortDto nextBooking);
+
+    /**
+     * Списки отзывов уже собраны под ответ или лежат в кэше и не меняются,
+     * поэтому передаются как есть, без копирования.
+     */
+    @Named("shared")
+    default List<CommentDto> shared(List<CommentDto> comments) {
+        return comments;
+    }
+}
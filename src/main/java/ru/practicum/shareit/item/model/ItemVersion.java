@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версия вещи вместе с водяным знаком отзывов: отзывы только добавляются,
+ * поэтому их числа и последнего id достаточно, чтобы заметить изменение.
+ */
+public record ItemVersion(Long ownerId,
+                          Long version,
+                          LocalDateTime updatedAt,
+                          Long commentCount,
+                          Long lastCommentId,
+                          LocalDateTime lastCommented) {
+
+    public LocalDateTime lastModified() {
+        return lastCommented != null && lastCommented.isAfter(updatedAt) ? lastCommented : updatedAt;
+    }
+}
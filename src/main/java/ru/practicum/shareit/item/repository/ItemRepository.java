@@ -1,17 +1,103 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemBookingsView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersion;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query("select i from Item i " +
-            "where i.available = true and " +
-            "(upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+    /**
+     * Доступные вещи, в названии или описании которых есть подстрока без учёта
+     * регистра. Символы {@code %}, {@code _} и {@code \} в {@code pattern}
+     * должны быть экранированы обратной косой чертой.
+     */
+    @Query(value = """
+            select i.id from items i
+            where i.is_available = true
+            and (i.name ilike concat('%', :pattern, '%') escape '\\'
+                or i.description ilike concat('%', :pattern, '%') escape '\\')
+            """, nativeQuery = true)
+    List<Long> searchIds(String pattern);
+
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
     List<Item> findByOwnerId(Long ownerId);
+
+    /**
+     * Вещи владельца вместе с последним и следующим одобренным бронированием
+     * за один запрос: row_number() выбирает ровно одно бронирование на вещь.
+     */
+    @Query(value = """
+            select i.id as id, i.name as name, i.description as description, i.is_available as available,
+                   i.request_id as requestId,
+                   lb.id as lastBookingId, lb.booker_id as lastBookerId,
+                   nb.id as nextBookingId, nb.booker_id as nextBookerId
+            from items i
+            left join (
+                select b.id, b.item_id, b.booker_id,
+                       row_number() over (partition by b.item_id order by b.end_date desc, b.id desc) as rn
+                from bookings b
+                join items bi on bi.id = b.item_id
+                where bi.owner_id = :ownerId and b.status = 'APPROVED' and b.start_date < :now
+            ) lb on lb.item_id = i.id and lb.rn = 1
+            left join (
+                select b.id, b.item_id, b.booker_id,
+                       row_number() over (partition by b.item_id order by b.start_date asc, b.id asc) as rn
+                from bookings b
+                join items bi on bi.id = b.item_id
+                where bi.owner_id = :ownerId and b.status = 'APPROVED' and b.start_date > :now
+            ) nb on nb.item_id = i.id and nb.rn = 1
+            where i.owner_id = :ownerId
+            order by i.id
+            """, nativeQuery = true)
+    List<ItemBookingsView> findOwnerDashboard(Long ownerId, LocalDateTime now);
+
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("""
+            select i from Item i join fetch i.request r
+            where r.requestor.id = :requestorId
+            and i.updatedAt <= :horizon
+            and (i.updatedAt > :updated or (i.updatedAt = :updated and i.id > :id))
+            order by i.updatedAt, i.id
+            """)
+    List<Item> findAnswerFeedPage(Long requestorId, LocalDateTime horizon, LocalDateTime updated, Long id,
+                                  Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> ids);
+
+    @Query("select i from Item i where i.owner.id = :ownerId order by i.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Item> streamByOwnerId(Long ownerId);
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemVersion(
+                i.owner.id, i.version, i.updatedAt, count(c.id), max(c.id), max(c.created))
+            from Item i left join Comment c on c.item.id = i.id
+            where i.id = :itemId
+            group by i.owner.id, i.version, i.updatedAt
+            """)
+    Optional<ItemVersion> findVersion(Long itemId);
 }
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания доступных вещей.
+ * Кандидаты отбираются пересечением списков триграмм запроса и затем
+ * проверяются точным сравнением подстроки, поэтому результат совпадает с
+ * {@code like '%text%'} без учета регистра: символы {@code %}, {@code _} и
+ * {@code \} в запросе ищутся буквально. Запрос короче триграммы проверяется
+ * полным перебором документов.
+ * <p>
+ * Память: на вещь хранится копия названия и описания в нижнем регистре и
+ * по одному {@code long} в списке каждой её различной триграммы, то есть
+ * порядка 10 байт на символ текста. Для 1 млн вещей со 150 символами текста
+ * это около 1.5 ГБ кучи; на таких объёмах нужен {@code shareit.search.engine=postgres}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_SIZE = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, LongPostings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            batch.forEach(this::index);
+            if (!batch.isEmpty()) {
+                lastId = batch.getLast().getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        log.info("Поисковый индекс загружен: {} вещей", documents.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            unindex(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                Document document = new Document(fold(item.getName()), fold(item.getDescription()));
+                documents.put(item.getId(), document);
+                for (String gram : document.grams()) {
+                    postings.computeIfAbsent(gram, g -> new LongPostings()).add(item.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text) {
+        String query = fold(text);
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM_SIZE ? documents.keySet() : candidates(query);
+            List<Long> result = new ArrayList<>();
+            for (Long id : candidates) {
+                if (documents.get(id).contains(query)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        List<LongPostings> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            LongPostings ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(LongPostings::size));
+
+        LongPostings smallest = lists.getFirst();
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void unindex(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.grams()) {
+            LongPostings ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String fold(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private record Document(String name, String description) {
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = InMemoryItemSearchEngine.grams(name);
+            grams.addAll(InMemoryItemSearchEngine.grams(description));
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    void index(Item item);
+
+    List<Long> search(String text);
+}
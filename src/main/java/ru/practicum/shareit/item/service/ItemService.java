@@ -1,24 +1,45 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.conditional.ResourceVersion;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
     Item create(Long ownerId, ItemDto dto);
 
+    BatchResult<Item> createBatch(Long ownerId, List<ItemDto> dtos);
+
     Item update(Long ownerId, Long itemId, ItemDto dto);
 
     ItemWithBookingsDto get(Long userId, Long itemId);
 
+    /**
+     * Валидаторы ответа {@link #get} одним лёгким запросом, без сборки тела.
+     */
+    ResourceVersion getVersion(Long userId, Long itemId);
+
     List<ItemWithBookingsDto> getOwnerItems(Long ownerId);
 
+    List<AvailabilitySlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<Item> search(String text);
 
     Comment addComment(Long userId, Long itemId, String text);
 
     Item getItem(Long itemId);
+
+    Item getItemForUpdate(Long itemId);
+
+    /**
+     * Блокирует строки вещей в порядке id; отсутствующие id пропускаются.
+     */
+    List<Item> getItemsForUpdate(Collection<Long> itemIds);
 }
\ No newline at end of file
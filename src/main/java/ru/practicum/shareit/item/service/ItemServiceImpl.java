@@ -3,27 +3,51 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.batch.BatchError;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.batch.BatchWriter;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.conditional.ResourceVersion;
+import ru.practicum.shareit.config.ReadRoutingContext;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.BookingTimeline;
+import ru.practicum.shareit.item.cache.BookingTimelineIndex;
+import ru.practicum.shareit.item.cache.ItemDetailCache;
+import ru.practicum.shareit.item.cache.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.cache.ItemDetails;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookingsView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.mapper.ItemViewMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersion;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,9 +55,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine searchEngine;
+    private final ItemDetailCache itemDetailCache;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final QueryFanOut queryFanOut;
+    private final BatchWriter batchWriter;
+    private final ItemViewMapper itemViewMapper;
 
     @Override
     public Item create(Long ownerId, ItemDto dto) {
@@ -47,8 +79,7 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("Отсутствует описание");
         }
 
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        User owner = userService.get(ownerId);
 
         Item item = new Item();
         item.setName(dto.getName());
@@ -56,11 +87,70 @@ public class ItemServiceImpl implements ItemService {
         item.setAvailable(dto.getAvailable());
         item.setOwner(owner);
 
+        if (dto.getRequestId() != null) {
+            item.setRequest(itemRequestRepository.findById(dto.getRequestId())
+                    .orElseThrow(() -> new NotFoundException("Запрос не найден")));
+        }
+
         Item savedItem = itemRepository.save(item);
+        searchEngine.index(savedItem);
         log.info("Вещь {} создана успешно", savedItem.getId());
         return savedItem;
     }
 
+    @Override
+    public BatchResult<Item> createBatch(Long ownerId, List<ItemDto> dtos) {
+        batchWriter.checkSize(dtos);
+        User owner = userService.get(ownerId);
+
+        List<BatchError> errors = new ArrayList<>();
+        List<BatchWriter.Row<ItemDto>> rows = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            ItemDto dto = dtos.get(i);
+            if (dto == null || dto.getName() == null || dto.getName().isBlank()) {
+                errors.add(new BatchError(i, "Отсутствует название"));
+            } else if (dto.getDescription() == null || dto.getDescription().isBlank()) {
+                errors.add(new BatchError(i, "Отсутствует описание"));
+            } else if (dto.getAvailable() == null) {
+                errors.add(new BatchError(i, "Отсутствует статус доступности"));
+            } else {
+                rows.add(new BatchWriter.Row<>(i, dto));
+            }
+        }
+
+        BatchResult<Item> result = batchWriter.write(rows, errors, (chunk, chunkErrors) -> {
+            Set<Long> requestIds = chunk.stream()
+                    .map(row -> row.value().getRequestId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of() : itemRequestRepository
+                    .findAllById(requestIds)
+                    .stream()
+                    .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+            List<Item> items = new ArrayList<>(chunk.size());
+            for (BatchWriter.Row<ItemDto> row : chunk) {
+                ItemDto dto = row.value();
+                Item item = ItemMapper.toItem(dto, owner);
+                if (dto.getRequestId() != null) {
+                    ItemRequest request = requests.get(dto.getRequestId());
+                    if (request == null) {
+                        chunkErrors.add(new BatchError(row.index(), "Запрос не найден"));
+                        continue;
+                    }
+                    item.setRequest(request);
+                }
+                items.add(item);
+            }
+            return items;
+        });
+
+        result.getCreated().forEach(searchEngine::index);
+        log.info("Пакет вещей владельца {}: создано {}, отклонено {}",
+                ownerId, result.getCreated().size(), result.getErrors().size());
+        return result;
+    }
+
     @Override
     public Item update(Long ownerId, Long itemId, ItemDto dto) {
         Item item = itemRepository.findById(itemId)
@@ -82,163 +172,161 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(item);
+        searchEngine.index(updatedItem);
+        itemDetailCache.evict(itemId);
         log.info("Вещь {} обновлена успешно", updatedItem.getId());
         return updatedItem;
     }
 
     @Override
     public ItemWithBookingsDto get(Long userId, Long itemId) {
-        Item item = itemRepository.findById(itemId)
+        ItemDetails details = itemDetailCache.getDetails(itemId,
+                id -> ReadRoutingContext.onPrimary(() -> loadDetails(id)));
+
+        ItemWithBookingsDto dto;
+        if (details.ownerId().equals(userId)) {
+            BookingTimeline timeline = bookingTimelineIndex.get(itemId);
+            LocalDateTime now = LocalDateTime.now();
+            dto = itemViewMapper.toItemWithBookingsDto(details, timeline.last(now), timeline.next(now));
+        } else {
+            dto = itemViewMapper.toItemWithBookingsDto(details, null, null);
+        }
+
+        log.debug("Вещь {} успешно получена пользователем {}", itemId, userId);
+        return dto;
+    }
+
+    /**
+     * Кэш деталей, отставший от базы (например, изменённый на другом узле),
+     * сбрасывается здесь, чтобы тело ответа не оказалось старше ETag.
+     */
+    @Override
+    public ResourceVersion getVersion(Long userId, Long itemId) {
+        ItemVersion version = itemRepository.findVersion(itemId)
                 .orElseThrow(() -> {
                     log.warn("Вещь {} не найдена", itemId);
                     return new NotFoundException("Вещь не найдена");
                 });
 
-        ItemWithBookingsDto dto = new ItemWithBookingsDto();
-        dto.setId(item.getId());
-        dto.setName(item.getName());
-        dto.setDescription(item.getDescription());
-        dto.setAvailable(item.getAvailable());
-        dto.setLastBooking(null);
-        dto.setNextBooking(null);
-        dto.setComments(List.of());
-
-        dto.setComments(
-                commentRepository.findByItemId(itemId)
-                        .stream()
-                        .map(c -> {
-                            CommentDto cd = new CommentDto();
-                            cd.setId(c.getId());
-                            cd.setText(c.getText());
-                            cd.setAuthorName(c.getAuthor().getName());
-                            cd.setCreated(c.getCreated());
-                            return cd;
-                        }).toList()
-        );
-
-        if (item.getOwner().getId().equals(userId)) {
-
-            LocalDateTime now = LocalDateTime.now();
+        ItemDetails cached = itemDetailCache.peek(itemId);
+        if (cached != null && (cached.version() < version.version()
+                || cached.comments().size() < version.commentCount())) {
+            itemDetailCache.evict(itemId);
+        }
 
-            bookingRepository
-                    .findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(
-                            itemId, now, BookingStatus.APPROVED
-                    )
-                    .ifPresent(b ->
-                            dto.setLastBooking(
-                                    new BookingShortDto(
-                                            b.getId(),
-                                            b.getBooker().getId()
-                                    )
-                            )
-                    );
-
-            bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            itemId, now, BookingStatus.APPROVED
-                    )
-                    .ifPresent(b ->
-                            dto.setNextBooking(
-                                    new BookingShortDto(
-                                            b.getId(),
-                                            b.getBooker().getId()
-                                    )
-                            )
-                    );
+        String etag = "item-" + itemId + "-" + version.version()
+                + "-" + version.commentCount() + "-" + version.lastCommentId();
+        if (!version.ownerId().equals(userId)) {
+            return new ResourceVersion(etag, version.lastModified());
         }
 
-        log.info("Вещь {} успешно получена пользователем {}", itemId, userId);
-        return dto;
+        // Последнее и следующее бронирования зависят от текущего времени,
+        // поэтому для владельца остаётся только ETag.
+        BookingTimeline timeline = bookingTimelineIndex.get(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        return new ResourceVersion(etag + "-" + bookingId(timeline.last(now)) + "-" + bookingId(timeline.next(now)), null);
+    }
+
+    private static Long bookingId(BookingShortDto booking) {
+        return booking != null ? booking.id() : null;
+    }
+
+    private static BookingShortDto shortBooking(Long bookingId, Long bookerId) {
+        return bookingId != null ? new BookingShortDto(bookingId, bookerId) : null;
     }
 
+    private ItemDetails loadDetails(Long itemId) {
+        try (QueryFanOut.Scope scope = queryFanOut.open()) {
+            Supplier<Optional<Item>> item = scope.fork(() -> itemRepository.findById(itemId));
+            Supplier<List<CommentDto>> comments = scope.fork(() ->
+                    itemViewMapper.toCommentDtos(commentRepository.findByItemId(itemId)));
+            scope.join();
+
+            Item found = item.get()
+                    .orElseThrow(() -> {
+                        log.warn("Вещь {} не найдена", itemId);
+                        return new NotFoundException("Вещь не найдена");
+                    });
+
+            return new ItemDetails(
+                    found.getId(),
+                    found.getOwner().getId(),
+                    found.getName(),
+                    found.getDescription(),
+                    found.getAvailable(),
+                    found.getRequest() != null ? found.getRequest().getId() : null,
+                    found.getVersion(),
+                    comments.get()
+            );
+        }
+    }
+
+    /**
+     * Вещи и их последние и следующие бронирования читаются одним запросом, а не
+     * из шкал: для тысяч вещей, которых нет в кэше, шкалы пришлось бы загружать
+     * со всей историей одобрений.
+     */
     @Override
     public List<ItemWithBookingsDto> getOwnerItems(Long ownerId) {
-        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        List<ItemBookingsView> views = itemRepository.findOwnerDashboard(ownerId, LocalDateTime.now());
 
-        if (items.isEmpty()) {
+        if (views.isEmpty()) {
             return List.of();
         }
 
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .toList();
+        List<Long> itemIds = new ArrayList<>(views.size());
+        for (ItemBookingsView view : views) {
+            itemIds.add(view.getId());
+        }
 
-        Map<Long, List<Comment>> commentsMap = commentRepository.findByItemIdIn(itemIds)
-                .stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+        Map<Long, List<CommentDto>> commentsMap = new HashMap<>();
+        for (Comment comment : commentRepository.findByItemIdIn(itemIds)) {
+            commentsMap.computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>())
+                    .add(itemViewMapper.toCommentDto(comment));
+        }
 
-        LocalDateTime now = LocalDateTime.now();
+        List<ItemWithBookingsDto> result = new ArrayList<>(views.size());
 
-        Map<Long, Booking> lastBookings = bookingRepository
-                .findLastBookings(itemIds, now, BookingStatus.APPROVED)
-                .stream()
-                .collect(Collectors.toMap(
-                        b -> b.getItem().getId(),
-                        b -> b,
-                        (a, b) -> a
-                ));
-
-        Map<Long, Booking> nextBookings = bookingRepository
-                .findNextBookings(itemIds, now, BookingStatus.APPROVED)
-                .stream()
-                .collect(Collectors.toMap(
-                        b -> b.getItem().getId(),
-                        b -> b,
-                        (a, b) -> a
-                ));
-
-        List<ItemWithBookingsDto> result = new ArrayList<>();
-
-        for (Item item : items) {
-            ItemWithBookingsDto dto = new ItemWithBookingsDto();
-            dto.setId(item.getId());
-            dto.setName(item.getName());
-            dto.setDescription(item.getDescription());
-            dto.setAvailable(item.getAvailable());
-
-            List<CommentDto> commentDtos = commentsMap
-                    .getOrDefault(item.getId(), List.of())
-                    .stream()
-                    .map(c -> {
-                        CommentDto cd = new CommentDto();
-                        cd.setId(c.getId());
-                        cd.setText(c.getText());
-                        cd.setAuthorName(c.getAuthor().getName());
-                        cd.setCreated(c.getCreated());
-                        return cd;
-                    })
-                    .toList();
-
-            dto.setComments(commentDtos);
-
-            Booking last = lastBookings.get(item.getId());
-            if (last != null) {
-                dto.setLastBooking(new BookingShortDto(
-                        last.getId(),
-                        last.getBooker().getId()
-                ));
-            }
+        for (ItemBookingsView view : views) {
+            result.add(itemViewMapper.toItemWithBookingsDto(view,
+                    shortBooking(view.getLastBookingId(), view.getLastBookerId()),
+                    shortBooking(view.getNextBookingId(), view.getNextBookerId()),
+                    commentsMap.getOrDefault(view.getId(), List.of())));
+        }
 
-            Booking next = nextBookings.get(item.getId());
-            if (next != null) {
-                dto.setNextBooking(new BookingShortDto(
-                        next.getId(),
-                        next.getBooker().getId()
-                ));
-            }
+        log.debug("Найдено {} вещей владельца {}", result.size(), ownerId);
+        return result;
+    }
 
-            result.add(dto);
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailabilitySlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.isBefore(LocalDateTime.now()) ? LocalDateTime.now() : from;
+        if (!to.isAfter(start)) {
+            log.warn("Некорректный период доступности {} - {}", from, to);
+            throw new BadRequestException("Конец периода должен быть позже начала и текущего момента");
         }
 
-        log.info("Найдено {} вещей владельца {}", result.size(), ownerId);
-        return result;
+        if (!itemRepository.existsById(itemId)) {
+            log.warn("Вещь {} не найдена", itemId);
+            throw new NotFoundException("Вещь не найдена");
+        }
+
+        List<AvailabilitySlotDto> slots = itemAvailabilityIndex.freeSlots(itemId, start, to);
+        log.debug("Найдено {} свободных окон вещи {}", slots.size(), itemId);
+        return slots;
     }
 
+    @Override
+    @Transactional(readOnly = true)
     public List<Item> search(String text) {
-        log.info("Поиск вещей по тексту: '{}'", text);
+        log.debug("Поиск вещей по тексту: '{}'", text);
         if (text == null || text.isBlank()) return List.of();
-        List<Item> items = itemRepository.search(text);
-        log.info("Найдено {} вещей по запросу '{}'", items.size(), text);
+        List<Item> items = itemRepository.findAllById(searchEngine.search(text))
+                .stream()
+                .filter(Item::getAvailable)
+                .toList();
+        log.debug("Найдено {} вещей по запросу '{}'", items.size(), text);
         return items;
     }
 
@@ -255,8 +343,7 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("Пользователь не арендовал вещь");
         }
 
-        User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        User author = userService.get(userId);
 
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
@@ -268,6 +355,7 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        itemDetailCache.evict(itemId);
         log.info("Комментарий {} к вещи {} создан успешно", savedComment.getId(), itemId);
         return savedComment;
     }
@@ -277,4 +365,15 @@ public class ItemServiceImpl implements ItemService {
         return itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
     }
+
+    @Override
+    public Item getItemForUpdate(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+    }
+
+    @Override
+    public List<Item> getItemsForUpdate(Collection<Long> itemIds) {
+        return itemRepository.findAllByIdForUpdate(itemIds);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.ReadRoutingContext;
+import ru.practicum.shareit.metrics.RequestQueryStats;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное выполнение независимых запросов на отдельных read-only
+ * соединениях. Задачи, открытые в одном {@link Scope}, ждутся вместе с
+ * общим таймаутом; при ошибке или таймауте остальные отменяются. Если
+ * режим выключен, пул потоков занят или у пула соединений нет свободных
+ * соединений, задачи выполняются последовательно в вызывающем потоке.
+ */
+@Component
+@Slf4j
+public class QueryFanOut implements DisposableBean {
+    private static final int MIN_IDLE_CONNECTIONS = 2;
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnly;
+    private final DataSource dataSource;
+
+    public QueryFanOut(PlatformTransactionManager transactionManager,
+                       DataSource dataSource,
+                       @Value("${shareit.item.fan-out.enabled:false}") boolean enabled,
+                       @Value("${shareit.item.fan-out.threads:16}") int threads,
+                       @Value("${shareit.item.fan-out.timeout:2s}") Duration timeout,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.dataSource = dataSource;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("query-fan-out-", 0).factory()
+                : Thread.ofPlatform().name("query-fan-out-", 0).daemon().factory();
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Отменённая задача не прерывает запрос в драйвере, поэтому сама
+        // транзакция тоже ограничена таймаутом fan-out (в секундах, с округлением вверх).
+        this.readOnly.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+    }
+
+    public Scope open() {
+        return new Scope(enabled && hasIdleConnections());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private boolean hasIdleConnections() {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return true;
+            }
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            return pool == null || pool.getIdleConnections() >= MIN_IDLE_CONNECTIONS;
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final boolean parallel;
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        private Scope(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (parallel) {
+                Supplier<T> task = ReadRoutingContext.wrap(RequestQueryStats.wrap(query));
+                try {
+                    Future<T> future = executor.submit(() -> readOnly.execute(status -> task.get()));
+                    futures.add(future);
+                    return () -> result(future);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Пул параллельных запросов занят, запрос выполняется последовательно");
+                }
+            }
+            T value = query.get();
+            return () -> value;
+        }
+
+        public void join() {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    close();
+                    throw new QueryTimeoutException("Запросы не выполнились за " + timeout.toMillis() + " мс");
+                } catch (InterruptedException e) {
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new QueryTimeoutException("Ожидание запросов прервано");
+                } catch (ExecutionException e) {
+                    close();
+                    throw unwrap(e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        private <T> T result(Future<T> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryTimeoutException("Ожидание запросов прервано");
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        private RuntimeException unwrap(ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                return runtimeException;
+            }
+            return new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Решает, попадает ли запрос в выборку логов: в среднем один из
+ * {@code rate}. Выборка хранится в атрибуте запроса, поэтому асинхронный
+ * запрос сохраняет решение и отложенные события при повторной
+ * диспетчеризации. Запрос с исключением или статусом 4xx/5xx выводит
+ * отложенные события.
+ */
+@Component
+public class LogSamplingInterceptor implements AsyncHandlerInterceptor {
+    private static final String SCOPE_ATTRIBUTE = LogSamplingInterceptor.class.getName() + ".scope";
+
+    private final int rate;
+
+    public LogSamplingInterceptor(@Value("${shareit.logging.sample-rate:1}") int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestLogSampling.Scope scope = (RequestLogSampling.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            scope = RequestLogSampling.open(rate <= 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+            request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        } else {
+            scope.resume();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestLogSampling.Scope scope = (RequestLogSampling.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            scope.suspend();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestLogSampling.Scope scope = (RequestLogSampling.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close(ex != null || response.getStatus() >= 400);
+        }
+    }
+}
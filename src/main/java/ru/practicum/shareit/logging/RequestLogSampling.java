@@ -0,0 +1,123 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.slf4j.spi.LocationAwareLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выборка логов по запросам. Решение принимается один раз на запрос и
+ * кладётся в MDC под ключом {@link #MDC_KEY}; события INFO и ниже из
+ * невыбранного запроса не пишутся сразу, а откладываются в буфер потока.
+ * Если запрос завершился ошибкой, буфер выводится целиком, иначе
+ * отбрасывается. Время выведенных так событий — время вывода.
+ */
+public final class RequestLogSampling {
+    public static final String MDC_KEY = "logSampled";
+    static final Marker REPLAY = MarkerFactory.getMarker("LOG_SAMPLING_REPLAY");
+    private static final String FQCN = RequestLogSampling.class.getName();
+    private static final int MAX_DEFERRED = 256;
+    private static final ThreadLocal<Buffer> CURRENT = new ThreadLocal<>();
+
+    private RequestLogSampling() {
+    }
+
+    /**
+     * Открывает выборку в текущем потоке. Для невыбранного запроса события
+     * INFO и ниже откладываются до {@link Scope#close(boolean)}.
+     */
+    public static Scope open(boolean sampled) {
+        Scope scope = new Scope(sampled, sampled ? null : new Buffer());
+        scope.resume();
+        return scope;
+    }
+
+    /**
+     * @return {@code false}, если буфер потока не открыт и событие нужно пропустить
+     */
+    static boolean defer(Logger logger, Level level, String format, Object[] params, Throwable t) {
+        Buffer buffer = CURRENT.get();
+        if (buffer == null) {
+            return false;
+        }
+        buffer.add(new Deferred(logger, level, format, params, t));
+        return true;
+    }
+
+    public static final class Scope {
+        private final boolean sampled;
+        private final Buffer buffer;
+
+        private Scope(boolean sampled, Buffer buffer) {
+            this.sampled = sampled;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Отвязывает выборку от потока, например когда запрос уходит в асинхронную обработку.
+         */
+        public void suspend() {
+            CURRENT.remove();
+            MDC.remove(MDC_KEY);
+        }
+
+        /**
+         * Привязывает выборку к текущему потоку, в том числе после {@link #suspend()}.
+         */
+        public void resume() {
+            MDC.put(MDC_KEY, Boolean.toString(sampled));
+            if (buffer != null) {
+                CURRENT.set(buffer);
+            }
+        }
+
+        /**
+         * @param failed запрос завершился ошибкой, и отложенные события нужно вывести
+         */
+        public void close(boolean failed) {
+            suspend();
+            if (failed && buffer != null) {
+                buffer.replay();
+            }
+        }
+    }
+
+    /**
+     * Отложенные события одного запроса. Хранит не больше {@code MAX_DEFERRED}
+     * событий, лишние считает и отбрасывает.
+     */
+    private static final class Buffer {
+        private final List<Deferred> events = new ArrayList<>();
+        private int dropped;
+
+        private synchronized void add(Deferred event) {
+            if (events.size() < MAX_DEFERRED) {
+                events.add(event);
+            } else {
+                dropped++;
+            }
+        }
+
+        private synchronized void replay() {
+            for (Deferred event : events) {
+                event.logger().log(REPLAY, FQCN, Level.toLocationAwareLoggerInteger(event.level()),
+                        event.format(), event.params(), event.throwable());
+            }
+            if (dropped > 0) {
+                Logger logger = events.getFirst().logger();
+                logger.log(REPLAY, FQCN, LocationAwareLogger.INFO_INT,
+                        "Отброшено {} отложенных событий запроса", new Object[]{dropped}, null);
+            }
+            events.clear();
+            dropped = 0;
+        }
+    }
+
+    private record Deferred(Logger logger, Level level, String format, Object[] params, Throwable throwable) {
+    }
+}
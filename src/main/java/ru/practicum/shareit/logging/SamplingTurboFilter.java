@@ -0,0 +1,36 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Не пропускает сразу события уровня INFO и ниже от логгеров с префиксом
+ * {@code loggerPrefix}, если запрос не попал в выборку
+ * ({@link RequestLogSampling#MDC_KEY} = {@code false}): событие откладывается
+ * до конца запроса и выводится, только если запрос завершился ошибкой.
+ * Предупреждения, ошибки и события вне запросов не отбрасываются. Фильтр
+ * срабатывает до форматирования сообщения, поэтому отложенное событие почти
+ * ничего не стоит.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private String loggerPrefix = "";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || level == null || level.isGreaterOrEqual(Level.WARN)
+                || marker == RequestLogSampling.REPLAY
+                || !"false".equals(MDC.get(RequestLogSampling.MDC_KEY))
+                || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return RequestLogSampling.defer(logger, level, format, params, t) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Подключает к Hibernate подсчёт подготовленных операторов и загруженных
+ * сущностей для {@link RequestQueryStats}.
+ */
+@Configuration
+public class QueryCountingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer() {
+        StatementInspector inspector = sql -> {
+            RequestQueryStats.statementPrepared();
+            return sql;
+        };
+        PostLoadEventListener postLoad = event -> RequestQueryStats.entityLoaded();
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata,
+                                  BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                sessionFactory.getServiceRegistry()
+                        .requireService(EventListenerRegistry.class)
+                        .appendListeners(EventType.POST_LOAD, postLoad);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+
+        return properties -> {
+            properties.put("hibernate.session_factory.statement_inspector", inspector);
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+        };
+    }
+}
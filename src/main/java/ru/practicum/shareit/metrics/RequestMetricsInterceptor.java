@@ -0,0 +1,107 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймер обработчика и число SQL-операторов и загруженных сущностей на
+ * запрос. Теги: endpoint (контроллер и метод), outcome (класс статуса ответа)
+ * и exception (тип исключения, обработанного {@code ErrorHandler}, или none).
+ * Запросы, ушедшие в асинхронную обработку (SSE, потоковые ответы), живут
+ * минутами, поэтому время остальных отдельно пишется в {@link #BLOCKING_TIMER}
+ * — по нему сбрасывается нагрузка.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+    public static final String BLOCKING_TIMER = "shareit.http.requests.blocking";
+    private static final String ASYNC_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".async";
+    private static final String SAMPLE_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".sample";
+    private static final String STATS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".stats";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getAttribute(SAMPLE_ATTRIBUTE) == null) {
+            request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(meterRegistry));
+            request.setAttribute(STATS_ATTRIBUTE, RequestQueryStats.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(ASYNC_ATTRIBUTE, Boolean.TRUE);
+        RequestQueryStats.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Timer.Sample sample = (Timer.Sample) request.getAttribute(SAMPLE_ATTRIBUTE);
+        RequestQueryStats stats = (RequestQueryStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (sample == null || stats == null || !(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        RequestQueryStats.stop();
+        request.removeAttribute(SAMPLE_ATTRIBUTE);
+
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        String outcome = outcome(response.getStatus());
+        String exception = exception(request, ex);
+
+        long nanos = sample.stop(Timer.builder("shareit.http.requests")
+                .description("Время обработки запроса контроллером")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        if (request.getAttribute(ASYNC_ATTRIBUTE) == null) {
+            Timer.builder(BLOCKING_TIMER)
+                    .description("Время обработки запросов без асинхронной части")
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        DistributionSummary.builder("shareit.http.statements")
+                .description("SQL-операторов на запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(stats.statements());
+
+        DistributionSummary.builder("shareit.http.entities")
+                .description("Загружено сущностей на запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(stats.entities());
+    }
+
+    private static String outcome(int status) {
+        HttpStatus.Series series = HttpStatus.Series.resolve(status);
+        return series != null ? series.name() : "UNKNOWN";
+    }
+
+    private static String exception(HttpServletRequest request, Exception ex) {
+        Object handled = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        if (handled instanceof Throwable throwable) {
+            return throwable.getClass().getSimpleName();
+        }
+        return ex != null ? ex.getClass().getSimpleName() : "none";
+    }
+}
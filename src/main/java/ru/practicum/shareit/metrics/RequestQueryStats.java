@@ -0,0 +1,64 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Счётчики SQL-операторов и загруженных сущностей текущего HTTP-запроса.
+ * Привязаны к потоку; задачи, которые запрос отдаёт в другие потоки,
+ * переносят счётчики через {@link #wrap(Supplier)}.
+ */
+public final class RequestQueryStats {
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong entities = new AtomicLong();
+
+    public static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            RequestQueryStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.get();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void statementPrepared() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+        }
+    }
+
+    static void entityLoaded() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entities.incrementAndGet();
+        }
+    }
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public long entities() {
+        return entities.get();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.outbox.model;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingEventPayload(BookingEventType type,
+                                  Long bookingId,
+                                  Long itemId,
+                                  Long ownerId,
+                                  Long bookerId,
+                                  LocalDateTime start,
+                                  LocalDateTime end,
+                                  BookingStatus status) {
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.outbox.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Блокирует голову очереди на время захвата пачки: второй экземпляр
+     * ретранслятора ждёт, пока первый не отметит пачку своей.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> findHead(Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimToken = :token, e.claimedUntil = :until where e.id in :ids")
+    int claim(Collection<Long> ids, String token, LocalDateTime until);
+
+    @Modifying
+    @Query("""
+            update OutboxEvent e set e.claimToken = null, e.claimedUntil = null
+            where e.id in :ids and e.claimToken = :token
+            """)
+    int release(Collection<Long> ids, String token);
+}
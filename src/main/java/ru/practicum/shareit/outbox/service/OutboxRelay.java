@@ -0,0 +1,121 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Переносит события из outbox в получатель пачками. Пачка сначала
+ * захватывается короткой транзакцией: строки головы очереди помечаются
+ * токеном и сроком захвата, после чего блокировки снимаются. Отправка идёт вне
+ * транзакции, затем отправленные события удаляются, а неотправленные
+ * освобождаются. Пока в голове есть чужой действующий захват, другие
+ * экземпляры её не берут, поэтому порядок событий по вещи сохраняется; захват,
+ * брошенный упавшим экземпляром, истекает через {@code claimTimeout}. Доставка —
+ * «хотя бы один раз». Если событие вещи не отправилось, более поздние события
+ * этой вещи в пачке пропускаются до следующего прохода. После половины
+ * срока захвата новые отправки не начинаются, остаток пачки освобождается.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration claimTimeout;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.claim-timeout:1m}") Duration claimTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    private int relayBatch() {
+        String token = UUID.randomUUID().toString();
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claim(token));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        long sendDeadline = System.nanoTime() + claimTimeout.toNanos() / 2;
+        Set<Long> blockedItems = new HashSet<>();
+        List<OutboxEvent> published = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (System.nanoTime() - sendDeadline > 0) {
+                log.warn("Истекает половина срока захвата, остаток пачки outbox отложен");
+                break;
+            }
+            if (blockedItems.contains(event.getItemId())) {
+                continue;
+            }
+            try {
+                sink.publish(event);
+                published.add(event);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отправить событие {} по вещи {}: {}", event.getId(), event.getItemId(), e.getMessage());
+                blockedItems.add(event.getItemId());
+            }
+        }
+
+        Set<Long> publishedIds = published.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+        List<Long> deferredIds = events.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !publishedIds.contains(id))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(publishedIds);
+            }
+            if (!deferredIds.isEmpty()) {
+                outboxEventRepository.release(deferredIds, token);
+            }
+        });
+        log.debug("Отправлено {} событий из outbox, отложено {}", published.size(), deferredIds.size());
+        return published.size();
+    }
+
+    private List<OutboxEvent> claim(String token) {
+        List<OutboxEvent> events = outboxEventRepository.findHead(PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimedElsewhere = events.stream()
+                .anyMatch(e -> e.getClaimedUntil() != null && e.getClaimedUntil().isAfter(now));
+        if (events.isEmpty() || claimedElsewhere) {
+            return List.of();
+        }
+        outboxEventRepository.claim(events.stream().map(OutboxEvent::getId).toList(), token, now.plus(claimTimeout));
+        return events;
+    }
+}
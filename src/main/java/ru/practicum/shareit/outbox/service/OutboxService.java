@@ -0,0 +1,54 @@
+package ru.practicum.shareit.outbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.outbox.model.BookingEventPayload;
+import ru.practicum.shareit.outbox.model.BookingEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Записывает события бронирований в outbox в транзакции вызывающего кода,
+ * поэтому событие появляется тогда и только тогда, когда фиксируется само
+ * изменение.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingChanged(Booking booking, BookingEventType type) {
+        Long itemId = booking.getItem().getId();
+        BookingEventPayload payload = new BookingEventPayload(
+                type,
+                booking.getId(),
+                itemId,
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus()
+        );
+
+        OutboxEvent event = new OutboxEvent();
+        event.setItemId(itemId);
+        event.setBookingId(booking.getId());
+        event.setType(type);
+        event.setCreated(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие бронирования " + booking.getId(), e);
+        }
+        outboxEventRepository.save(event);
+    }
+}
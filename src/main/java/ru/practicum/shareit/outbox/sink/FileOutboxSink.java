@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Дописывает полезную нагрузку событий в файл, по одной JSON-строке на событие.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    private final Path path;
+
+    public FileOutboxSink(@Value("${shareit.outbox.file.path:outbox.ndjson}") Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void publish(OutboxEvent event) {
+        try {
+            Files.writeString(path, event.getPayload() + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать событие " + event.getId(), e);
+        }
+    }
+}
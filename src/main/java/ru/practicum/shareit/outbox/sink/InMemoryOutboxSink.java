@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOutboxSink implements OutboxSink {
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+    private final int capacity;
+
+    public InMemoryOutboxSink(@Value("${shareit.outbox.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(OutboxEvent event) {
+        if (events.size() == capacity) {
+            events.removeFirst();
+        }
+        events.addLast(event);
+        log.debug("Событие {} {} по вещи {} опубликовано", event.getId(), event.getType(), event.getItemId());
+    }
+
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+}
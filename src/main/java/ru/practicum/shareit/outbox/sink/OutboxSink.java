@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+/**
+ * Получатель событий из outbox. Исключение означает, что событие не доставлено
+ * и будет отправлено повторно.
+ */
+public interface OutboxSink {
+    void publish(OutboxEvent event);
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.time.Duration;
+
+/**
+ * Отправляет события HTTP-шлюзу брокера. Ключ партиции — id вещи, id события
+ * позволяет получателю отбрасывать повторы.
+ * <p>
+ * Один запрос ограничен таймаутами соединения и чтения. Их сумма должна
+ * быть меньше половины {@code shareit.outbox.claim-timeout}: релей не
+ * начинает отправку после половины срока захвата, и зависший запрос не
+ * переживёт захват, иначе другой экземпляр заберёт пачку повторно.
+ * Соотношение проверяется при старте.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+    private final RestClient restClient;
+
+    public WebhookOutboxSink(RestClient.Builder builder,
+                             @Value("${shareit.outbox.webhook.url}") String url,
+                             @Value("${shareit.outbox.webhook.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${shareit.outbox.webhook.read-timeout:5s}") Duration readTimeout,
+                             @Value("${shareit.outbox.claim-timeout:1m}") Duration claimTimeout) {
+        if (connectTimeout.plus(readTimeout).compareTo(claimTimeout.dividedBy(2)) >= 0) {
+            throw new IllegalStateException("Таймауты webhook (" + connectTimeout + " + " + readTimeout
+                    + ") должны быть меньше половины shareit.outbox.claim-timeout (" + claimTimeout + ")");
+        }
+        this.restClient = builder
+                .baseUrl(url)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+    }
+
+    @Override
+    public void publish(OutboxEvent event) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Event-Id", String.valueOf(event.getId()))
+                .header("X-Event-Type", event.getType().name())
+                .header("X-Partition-Key", String.valueOf(event.getItemId()))
+                .body(event.getPayload())
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.BadRequestException;
+
+/**
+ * Страница по параметрам {@code from}/{@code size} из API: смещение берётся
+ * как есть, а не округляется до начала страницы, как в {@code PageRequest}.
+ * Порядок задаётся самим запросом репозитория.
+ */
+public record OffsetPageRequest(long offset, int size) implements Pageable {
+
+    public static OffsetPageRequest of(int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации");
+        }
+        return new OffsetPageRequest(from, size);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + size, size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - size), size) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, size);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * size, size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
@@ -1,21 +0,0 @@
-package ru.practicum.shareit.request;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import ru.practicum.shareit.user.model.User;
-
-import java.time.LocalDateTime;
-
-/**
- * TODO Sprint add-item-requests.
- */
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class ItemRequest {
-    private Long id;
-    private String description;
-    private User requestor;
-    private LocalDateTime created;
-}
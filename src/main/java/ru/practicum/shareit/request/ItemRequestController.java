@@ -1,12 +1,57 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+@Slf4j
 public class ItemRequestController {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto create(@RequestHeader(USER_HEADER) Long userId,
+                                 @RequestBody ItemRequestDto dto) {
+        log.info("Создание запроса пользователем {}: {}", userId, dto.getDescription());
+        return itemRequestService.create(userId, dto);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> own(@RequestHeader(USER_HEADER) Long userId) {
+        log.info("Получение запросов пользователя {}", userId);
+        return itemRequestService.getOwn(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> all(@RequestHeader(USER_HEADER) Long userId,
+                                    @RequestParam(defaultValue = "0") int from,
+                                    @RequestParam(defaultValue = "10") int size) {
+        log.info("Получение запросов других пользователей для {}, from={}, size={}", userId, from, size);
+        return itemRequestService.getAll(userId, from, size);
+    }
+
+    @GetMapping("/feed")
+    public ItemRequestFeedDto feed(@RequestHeader(USER_HEADER) Long userId,
+                                   @RequestParam(required = false) String since,
+                                   @RequestParam(defaultValue = "100") int size) {
+        log.info("Получение ленты запросов пользователем {}", userId);
+        return itemRequestService.getFeed(userId, since, size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto get(@RequestHeader(USER_HEADER) Long userId,
+                              @PathVariable Long requestId) {
+        log.info("Получение запроса {} пользователем {}", requestId, userId);
+        return itemRequestService.get(userId, requestId);
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ItemRequestFeedDto {
+    private List<ItemRequestDto> requests;
+    private List<ItemAnswerDto> answers;
+    private String cursor;
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.request.dto;
+
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция клиента в ленте запросов: время создания и id последнего
+ * увиденного запроса и время изменения и id последней вещи-ответа.
+ */
+public record RequestFeedCursor(LocalDateTime requestCreated, long requestId,
+                                LocalDateTime answerUpdated, long itemId) {
+    private static final String SEPARATOR = "|";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public static final RequestFeedCursor START = new RequestFeedCursor(EPOCH, 0, EPOCH, 0);
+
+    public static RequestFeedCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, -1);
+            return new RequestFeedCursor(
+                    LocalDateTime.parse(parts[0]),
+                    Long.parseLong(parts[1]),
+                    LocalDateTime.parse(parts[2]),
+                    Long.parseLong(parts[3])
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор: " + value);
+        }
+    }
+
+    public String encode() {
+        String value = requestCreated + SEPARATOR + requestId + SEPARATOR + answerUpdated + SEPARATOR + itemId;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
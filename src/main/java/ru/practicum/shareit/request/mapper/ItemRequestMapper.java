@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request.mapper;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequestDto toDto(ItemRequest request, List<ItemAnswerDto> items) {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setId(request.getId());
+        dto.setDescription(request.getDescription());
+        dto.setCreated(request.getCreated());
+        dto.setItems(items);
+        return dto;
+    }
+
+    public static ItemAnswerDto toAnswerDto(Item item) {
+        ItemAnswerDto dto = new ItemAnswerDto();
+        dto.setId(item.getId());
+        dto.setName(item.getName());
+        dto.setOwnerId(item.getOwner().getId());
+        dto.setRequestId(item.getRequest().getId());
+        return dto;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
+
+    List<ItemRequest> findByRequestorIdNotOrderByCreatedDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("""
+            select r from ItemRequest r
+            where r.requestor.id <> :userId
+            and r.created <= :horizon
+            and (r.created > :created or (r.created = :created and r.id > :id))
+            order by r.created, r.id
+            """)
+    List<ItemRequest> findFeedPage(Long userId, LocalDateTime horizon, LocalDateTime created, Long id,
+                                   Pageable pageable);
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedDto;
+import ru.practicum.shareit.request.dto.RequestFeedCursor;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final Duration feedSettle;
+
+    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository,
+                                  ItemRepository itemRepository,
+                                  UserService userService,
+                                  @Value("${shareit.request.feed.settle:5s}") Duration feedSettle) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.userService = userService;
+        this.feedSettle = feedSettle;
+    }
+
+    @Override
+    public ItemRequestDto create(Long userId, ItemRequestDto dto) {
+        if (dto.getDescription() == null || dto.getDescription().isBlank()) {
+            log.warn("Нет описания запроса");
+            throw new BadRequestException("Отсутствует описание");
+        }
+
+        User requestor = userService.get(userId);
+
+        ItemRequest request = new ItemRequest();
+        request.setDescription(dto.getDescription());
+        request.setRequestor(requestor);
+        request.setCreated(LocalDateTime.now());
+
+        ItemRequest saved = itemRequestRepository.save(request);
+        log.info("Запрос {} создан успешно", saved.getId());
+        return ItemRequestMapper.toDto(saved, List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwn(Long userId) {
+        userService.get(userId);
+        return withAnswers(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getAll(Long userId, int from, int size) {
+        OffsetPageRequest page = OffsetPageRequest.of(from, size);
+        userService.get(userId);
+        return withAnswers(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(userId, page));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto get(Long userId, Long requestId) {
+        userService.get(userId);
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> {
+                    log.warn("Запрос {} не найден", requestId);
+                    return new NotFoundException("Запрос не найден");
+                });
+        return withAnswers(List.of(request)).getFirst();
+    }
+
+    /**
+     * Лента идёт по времени создания запросов и изменения вещей-ответов, а не по
+     * id: id выдаются до фиксации, и строка с меньшим id может стать видна позже
+     * уже выданной. Чтобы такая строка не оказалась позади курсора, в ленту
+     * попадают только строки старше {@code feedSettle}. Это защита по принципу
+     * «как получится», а не гарантия: время строки ставится до фиксации, и
+     * транзакция, которая длится дольше {@code feedSettle}, всё ещё может
+     * зафиксировать строку позади выданного курсора, и она в ленту не попадёт.
+     * Поэтому {@code shareit.request.feed.settle} нужно задавать больше
+     * максимального времени транзакции, пишущей запросы и вещи. Ответы — только
+     * на запросы самого пользователя; изменённая вещь приходит повторно с тем же id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestFeedDto getFeed(Long userId, String since, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации");
+        }
+        userService.get(userId);
+        RequestFeedCursor cursor = RequestFeedCursor.decode(since);
+
+        LocalDateTime horizon = LocalDateTime.now().minus(feedSettle);
+
+        List<ItemRequest> requests = itemRequestRepository.findFeedPage(
+                userId, horizon, cursor.requestCreated(), cursor.requestId(), PageRequest.of(0, size));
+        List<Item> items = itemRepository.findAnswerFeedPage(
+                userId, horizon, cursor.answerUpdated(), cursor.itemId(), PageRequest.of(0, size));
+        List<ItemAnswerDto> answers = items.stream()
+                .map(ItemRequestMapper::toAnswerDto)
+                .toList();
+
+        ItemRequest lastRequest = requests.isEmpty() ? null : requests.getLast();
+        Item lastItem = items.isEmpty() ? null : items.getLast();
+        RequestFeedCursor next = new RequestFeedCursor(
+                lastRequest == null ? cursor.requestCreated() : lastRequest.getCreated(),
+                lastRequest == null ? cursor.requestId() : lastRequest.getId(),
+                lastItem == null ? cursor.answerUpdated() : lastItem.getUpdatedAt(),
+                lastItem == null ? cursor.itemId() : lastItem.getId()
+        );
+        List<ItemRequestDto> requestDtos = requests.stream()
+                .map(r -> ItemRequestMapper.toDto(r, List.of()))
+                .toList();
+        log.debug("Лента запросов пользователя {}: {} запросов, {} ответов", userId, requests.size(), answers.size());
+        return new ItemRequestFeedDto(requestDtos, answers, next.encode());
+    }
+
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findByRequestIdIn(requestIds)
+                .stream()
+                .map(ItemRequestMapper::toAnswerDto)
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+
+        List<ItemRequestDto> result = new ArrayList<>(requests.size());
+        for (ItemRequest request : requests) {
+            result.add(ItemRequestMapper.toDto(request, answers.getOrDefault(request.getId(), List.of())));
+        }
+        return result;
+    }
+}
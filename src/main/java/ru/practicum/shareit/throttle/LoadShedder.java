@@ -0,0 +1,114 @@
+package ru.practicum.shareit.throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.metrics.RequestMetricsInterceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сбрасывает часть запросов, пока сглаженное время ожидания соединения из
+ * пула или время обработки запроса выше порога. Доля сброса растёт вместе с
+ * превышением и достигает всех запросов при двукратном пороге. Оба сигнала
+ * берутся из уже собираемых таймеров: {@code hikari.connections.acquire} и
+ * {@link RequestMetricsInterceptor#BLOCKING_TIMER} — без SSE и потоковых
+ * выгрузок, которые держат запрос минутами. Интервал без замеров сглаживается как
+ * нулевой, так что после разгрузки сброс прекращается сам.
+ */
+@Component
+@Slf4j
+public class LoadShedder {
+    private static final String POOL_WAIT_TIMER = "hikari.connections.acquire";
+    private static final String LATENCY_TIMER = RequestMetricsInterceptor.BLOCKING_TIMER;
+
+    private final LoadSheddingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Sample poolWait = new Sample();
+    private final Sample latency = new Sample();
+    private final Counter shed;
+    private volatile double shedRatio;
+
+    public LoadShedder(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.shed = meterRegistry.counter("shareit.http.rejected", "reason", "overload");
+        Gauge.builder("shareit.load.pool-wait", poolWait, sample -> sample.smoothedNanos / 1e6)
+                .description("Сглаженное ожидание соединения из пула, мс")
+                .register(meterRegistry);
+        Gauge.builder("shareit.load.latency", latency, sample -> sample.smoothedNanos / 1e6)
+                .description("Сглаженное время обработки запроса, мс")
+                .register(meterRegistry);
+        Gauge.builder("shareit.load.shed-ratio", this, shedder -> shedder.shedRatio)
+                .description("Доля сбрасываемых запросов")
+                .register(meterRegistry);
+    }
+
+    public void check() {
+        double ratio = shedRatio;
+        if (ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio) {
+            shed.increment();
+            throw new ServiceUnavailableException("Сервис перегружен, повторите запрос позже",
+                    Math.max(1, properties.getRetryAfter().toSeconds()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.load-shedding.interval-ms:1000}")
+    public void update() {
+        if (!properties.isEnabled()) {
+            shedRatio = 0;
+            return;
+        }
+        double alpha = properties.getSmoothing();
+        poolWait.update(meterRegistry.find(POOL_WAIT_TIMER).timers(), alpha);
+        latency.update(meterRegistry.find(LATENCY_TIMER).timers(), alpha);
+
+        double ratio = Math.max(
+                excess(poolWait.smoothedNanos, properties.getPoolWaitThreshold().toNanos()),
+                excess(latency.smoothedNanos, properties.getLatencyThreshold().toNanos()));
+        if ((ratio > 0) != (shedRatio > 0)) {
+            log.warn("Сброс нагрузки {}: ожидание пула {} мс, обработка {} мс",
+                    ratio > 0 ? "включён" : "выключен",
+                    Math.round(poolWait.smoothedNanos / 1e6), Math.round(latency.smoothedNanos / 1e6));
+        }
+        shedRatio = ratio;
+    }
+
+    private static double excess(double value, long threshold) {
+        if (threshold <= 0 || value <= threshold) {
+            return 0;
+        }
+        return Math.min(1, (value - threshold) / threshold);
+    }
+
+    /**
+     * Среднее по приросту таймеров за интервал, сглаженное экспоненциально.
+     */
+    private static final class Sample {
+        private long count;
+        private double totalNanos;
+        private volatile double smoothedNanos;
+
+        void update(Iterable<Timer> timers, double alpha) {
+            long newCount = 0;
+            double newTotal = 0;
+            for (Timer timer : timers) {
+                newCount += timer.count();
+                newTotal += timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+            long deltaCount = newCount - count;
+            double deltaTotal = newTotal - totalNanos;
+            count = newCount;
+            totalNanos = newTotal;
+
+            double mean = deltaCount > 0 ? deltaTotal / deltaCount : 0;
+            smoothedNanos = alpha * mean + (1 - alpha) * smoothedNanos;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.throttle;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "shareit.load-shedding")
+@Getter
+@Setter
+public class LoadSheddingProperties {
+    private boolean enabled = true;
+    private Duration poolWaitThreshold = Duration.ofMillis(200);
+    private Duration latencyThreshold = Duration.ofSeconds(2);
+    private double smoothing = 0.3;
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
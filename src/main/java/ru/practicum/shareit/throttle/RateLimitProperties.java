@@ -0,0 +1,33 @@
+package ru.practicum.shareit.throttle;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Лимиты запросов на пользователя. Ключ в {@code endpoints} — имя
+ * обработчика в виде {@code Контроллер.метод}, как в теге endpoint метрик;
+ * обработчики без записи не ограничиваются.
+ */
+@Component
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private long maxBuckets = 100_000;
+    private Map<String, Limit> endpoints = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
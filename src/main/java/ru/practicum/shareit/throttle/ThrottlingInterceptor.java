@@ -0,0 +1,51 @@
+package ru.practicum.shareit.throttle;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Отклоняет запрос до обработчика: сначала по перегрузке (503), затем по
+ * лимиту пользователя (429). Запросы без заголовка пользователя
+ * ограничиваются по адресу клиента.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThrottlingInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final LoadShedder loadShedder;
+    private final UserRateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        loadShedder.check();
+
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        Long userId = userId(request);
+        if (userId != null) {
+            rateLimiter.acquire(endpoint, userId);
+        } else {
+            rateLimiter.acquire(endpoint, request.getRemoteAddr());
+        }
+        return true;
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException ignore) {
+            return null;
+        }
+    }
+}
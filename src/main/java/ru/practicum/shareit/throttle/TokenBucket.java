@@ -0,0 +1,52 @@
+package ru.practicum.shareit.throttle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Корзина токенов без блокировок: состояние неизменяемое и заменяется через
+ * CAS, пополнение считается лениво по времени последнего изъятия.
+ */
+final class TokenBucket {
+    private final long capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(long capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = available(current, now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Через сколько секунд появится следующий токен, не меньше одной.
+     */
+    long secondsUntilToken(long now) {
+        double missing = 1 - available(state.get(), now);
+        if (missing <= 0 || tokensPerNano <= 0) {
+            return 1;
+        }
+        return Math.max(1, (long) Math.ceil(missing / tokensPerNano / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    private double available(State current, long now) {
+        long elapsed = Math.max(0, now - current.updatedAt());
+        return Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
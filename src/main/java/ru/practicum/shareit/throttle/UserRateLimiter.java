@@ -0,0 +1,58 @@
+package ru.practicum.shareit.throttle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+/**
+ * Корзины токенов по паре «обработчик, пользователь»; запросы без
+ * пользователя делят корзину по адресу клиента. Корзины, к которым
+ * давно не обращались, вытесняются, а общее их число ограничено, поэтому
+ * память не растёт с числом когда-либо приходивших пользователей.
+ */
+@Component
+public class UserRateLimiter {
+    private final RateLimitProperties properties;
+    private final Cache<Key, TokenBucket> buckets;
+    private final Counter rejected;
+
+    public UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+        this.rejected = meterRegistry.counter("shareit.http.rejected", "reason", "rate-limit");
+    }
+
+    public void acquire(String endpoint, long userId) {
+        acquire(endpoint, userId, null);
+    }
+
+    public void acquire(String endpoint, String clientAddress) {
+        acquire(endpoint, 0, clientAddress);
+    }
+
+    private void acquire(String endpoint, long userId, String clientAddress) {
+        RateLimitProperties.Limit limit = properties.getEndpoints().get(endpoint);
+        if (!properties.isEnabled() || limit == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new Key(endpoint, userId, clientAddress),
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+        if (!bucket.tryAcquire(now)) {
+            rejected.increment();
+            throw new TooManyRequestsException("Слишком много запросов", bucket.secondsUntilToken(now));
+        }
+    }
+
+    private record Key(String endpoint, long userId, String clientAddress) {
+    }
+}
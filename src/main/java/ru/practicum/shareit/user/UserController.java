@@ -3,9 +3,14 @@ package ru.practicum.shareit.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
@@ -16,7 +21,11 @@ import java.util.List;
 @Slf4j
 public class UserController {
 
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserService userService;
+    private final UserExportService userExportService;
 
     @PostMapping
     public UserDto create(@Valid @RequestBody UserDto dto) {
@@ -47,6 +56,17 @@ public class UserController {
                 .toList();
     }
 
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(USER_HEADER) Long userId,
+                                                        @PathVariable Long id) {
+        log.info("Выгрузка данных пользователя {} пользователем {}", id, userId);
+        userExportService.checkAccess(userId, id);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user-" + id + ".ndjson\"")
+                .body(out -> userExportService.export(id, out));
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         log.info("Удаление пользователя {}", id);
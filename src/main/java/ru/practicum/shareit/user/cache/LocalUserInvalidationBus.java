@@ -0,0 +1,26 @@
+package ru.practicum.shareit.user.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+@Component
+@ConditionalOnProperty(name = "shareit.cache.users.bus", havingValue = "local", matchIfMissing = true)
+public class LocalUserInvalidationBus implements UserInvalidationBus {
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(long userId) {
+        for (LongConsumer listener : listeners) {
+            listener.accept(userId);
+        }
+    }
+
+    @Override
+    public void subscribe(LongConsumer listener) {
+        listeners.add(listener);
+    }
+}
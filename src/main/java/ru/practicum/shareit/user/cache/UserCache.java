@@ -0,0 +1,100 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Ближний кэш пользователей для проверок существования и ссылок на автора,
+ * владельца или арендатора. Таблица прямого отображения по примитивному
+ * ключу: слот выбирается по id, коллизия просто вытесняет прежнюю запись.
+ * Хранятся отсоединённые копии, поэтому менять их нельзя.
+ *
+ * <p>Изменения пользователей приходят через {@link UserInvalidationBus}.
+ * Загрузка, начатая до сброса, свой результат не сохраняет, а срок жизни
+ * записи ограничивает устаревание при потере сообщения.
+ */
+@Component
+public class UserCache {
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final long ttlNanos;
+    private final UserInvalidationBus bus;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserCache(UserInvalidationBus bus,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.slots:4096}") int slots,
+                     @Value("${shareit.cache.users.ttl:1m}") Duration ttl) {
+        int size = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.ttlNanos = ttl.toNanos();
+        this.bus = bus;
+        this.hits = meterRegistry.counter("shareit.cache.users", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.cache.users", "result", "miss");
+        bus.subscribe(this::invalidate);
+    }
+
+    public User get(long userId, LongFunction<User> loader) {
+        int slot = slot(userId);
+        Entry entry = slots.get(slot);
+        long now = System.nanoTime();
+        if (entry != null && entry.userId() == userId && now - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            return entry.user();
+        }
+
+        misses.increment();
+        long epoch = invalidations.get();
+        User user = loader.apply(userId);
+        User copy = copyOf(user);
+        if (invalidations.get() == epoch) {
+            slots.set(slot, new Entry(userId, copy, now));
+        }
+        return copy;
+    }
+
+    /**
+     * Сообщает всем узлам, что пользователь изменён или удалён.
+     * Вызывается после фиксации изменения.
+     */
+    public void evict(long userId) {
+        bus.publish(userId);
+    }
+
+    private void invalidate(long userId) {
+        invalidations.incrementAndGet();
+        int slot = slot(userId);
+        Entry entry = slots.get(slot);
+        if (entry != null && entry.userId() == userId) {
+            slots.compareAndSet(slot, entry, null);
+        }
+    }
+
+    private int slot(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private record Entry(long userId, User user, long loadedAt) {
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.cache;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Канал сообщений об изменённых пользователях. Каждый узел подписывает на
+ * него свой {@link UserCache}; реализация для нескольких узлов доставляет
+ * сообщение всем подписчикам, включая отправителя.
+ */
+public interface UserInvalidationBus {
+
+    void publish(long userId);
+
+    void subscribe(LongConsumer listener);
+}
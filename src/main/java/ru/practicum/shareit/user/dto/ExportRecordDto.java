@@ -0,0 +1,4 @@
+package ru.practicum.shareit.user.dto;
+
+public record ExportRecordDto(String type, Object data) {
+}
@@ -18,4 +18,7 @@ public class User {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
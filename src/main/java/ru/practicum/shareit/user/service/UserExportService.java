@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    /**
+     * Проверяет до начала потока, что пользователь существует и выгружает
+     * свои данные: чужая выгрузка запрещена.
+     */
+    void checkAccess(Long requesterId, Long userId);
+
+    /**
+     * Пишет вещи и бронирования пользователя в {@code out} в формате NDJSON,
+     * по одной записи на строку.
+     */
+    void export(Long userId, OutputStream out) throws IOException;
+}
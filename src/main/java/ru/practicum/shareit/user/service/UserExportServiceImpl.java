@@ -0,0 +1,110 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.ExportRecordDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка идёт курсором в одной читающей транзакции: строки читаются
+ * порциями по размеру выборки, контекст персистентности очищается каждые
+ * {@code clearEvery} записей, поэтому память не зависит от объёма данных.
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final int clearEvery;
+
+    public UserExportServiceImpl(ItemRepository itemRepository,
+                                 BookingRepository bookingRepository,
+                                 UserService userService,
+                                 EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.export.clear-every:500}") int clearEvery) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.userService = userService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.clearEvery = clearEvery;
+    }
+
+    @Override
+    public void checkAccess(Long requesterId, Long userId) {
+        userService.get(userId);
+        if (!userId.equals(requesterId)) {
+            log.warn("Пользователь {} запросил выгрузку данных пользователя {}", requesterId, userId);
+            throw new ForbiddenException("Доступ ограничен");
+        }
+    }
+
+    @Override
+    public void export(Long userId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long rows = transactionTemplate.execute(status -> {
+                long items;
+                try (Stream<Item> stream = itemRepository.streamByOwnerId(userId)) {
+                    items = write(generator, stream, "item", ItemMapper::toItemDto);
+                }
+                try (Stream<Booking> stream = bookingRepository.streamByBookerId(userId)) {
+                    return items + write(generator, stream, "booking", BookingMapper::toDto);
+                }
+            });
+            log.info("Выгрузка пользователя {} завершена: {} записей", userId, rows);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> long write(JsonGenerator generator, Stream<T> stream, String type, Function<T, Object> mapper) {
+        long count = 0;
+        Iterator<T> rows = stream.iterator();
+        try {
+            while (rows.hasNext()) {
+                writer.writeValue(generator, new ExportRecordDto(type, mapper.apply(rows.next())));
+                generator.writeRaw('\n');
+                if (++count % clearEvery == 0) {
+                    entityManager.clear();
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
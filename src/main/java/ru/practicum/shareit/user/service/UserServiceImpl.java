@@ -3,7 +3,10 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.ReadRoutingContext;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -14,45 +17,57 @@ import java.util.List;
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     public User create(User user) {
-        log.info("Создание пользователя: {}", user);
+        log.debug("Создание пользователя: {}", user);
         User savedUser = userRepository.save(user);
         log.info("Пользователь {} успешно создан", savedUser.getId());
         return savedUser;
     }
 
     public User update(Long id, User user) {
-        log.info("Обновление пользователя {}: {}", id, user);
-        User existing = get(id);
+        log.debug("Обновление пользователя {}: {}", id, user);
+        User existing = find(id);
         if (user.getName() != null) existing.setName(user.getName());
         if (user.getEmail() != null) existing.setEmail(user.getEmail());
         User updatedUser = userRepository.save(existing);
+        userCache.evict(id);
         log.info("Пользователь {} успешно обновлен", updatedUser.getId());
         return updatedUser;
     }
 
+    /**
+     * Возвращает пользователя из ближнего кэша: отсоединённую копию, которую
+     * можно ставить в связи новых сущностей, но не изменять.
+     */
     public User get(Long id) {
-        log.info("Получение пользователя {}", id);
-        User found = userRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Пользователь {} не найден", id);
-                    return new NotFoundException("Пользователь не найден");
-                });
-        log.info("Пользователь {} успешно найден", id);
+        log.debug("Получение пользователя {}", id);
+        User found = userCache.get(id, userId -> ReadRoutingContext.onPrimary(() -> find(userId)));
+        log.debug("Пользователь {} успешно найден", id);
         return found;
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAll() {
-        log.info("Получение всех пользователей");
+        log.debug("Получение всех пользователей");
         List<User> users = userRepository.findAll();
-        log.info("Найдено {} пользователей", users.size());
+        log.debug("Найдено {} пользователей", users.size());
         return users;
     }
 
     public void delete(Long id) {
-        log.info("Удаление пользователя {}", id);
+        log.debug("Удаление пользователя {}", id);
         userRepository.deleteById(id);
+        userCache.evict(id);
         log.info("Пользователь {} успешно удален", id);
     }
+
+    private User find(Long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Пользователь {} не найден", id);
+                    return new NotFoundException("Пользователь не найден");
+                });
+    }
 }
\ No newline at end of file
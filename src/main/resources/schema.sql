@@ -1,27 +1,59 @@
+create EXTENSION IF NOT EXISTS pg_trgm;
+create EXTENSION IF NOT EXISTS btree_gist;
 create TABLE IF NOT EXISTS users (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 name VARCHAR(255) NOT NULL,
-email VARCHAR(512) NOT NULL UNIQUE
+email VARCHAR(512) NOT NULL UNIQUE,
+version BIGINT NOT NULL DEFAULT 0
 );
-create TABLE IF NOT EXISTS items (
+create TABLE IF NOT EXISTS requests (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+description TEXT NOT NULL,
+requestor_id BIGINT NOT NULL,
+created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+CONSTRAINT fk_request_requestor FOREIGN KEY (requestor_id) REFERENCES users(id)
+);
+create SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+create TABLE IF NOT EXISTS items (
+id BIGINT DEFAULT nextval('items_seq') PRIMARY KEY,
 name VARCHAR(255) NOT NULL,
 description TEXT,
 is_available BOOLEAN NOT NULL,
 owner_id BIGINT NOT NULL,
 request_id BIGINT,
-CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users(id)
+version BIGINT NOT NULL DEFAULT 0,
+updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users(id),
+CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests(id)
 );
+create SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
 create TABLE IF NOT EXISTS bookings (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+id BIGINT DEFAULT nextval('bookings_seq') PRIMARY KEY,
 start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 item_id BIGINT NOT NULL,
 booker_id BIGINT NOT NULL,
 status VARCHAR(20) NOT NULL,
+version BIGINT NOT NULL DEFAULT 0,
+updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
 CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items(id),
-CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id)
+CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id),
+CONSTRAINT ex_booking_approved_overlap EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+WHERE (status = 'APPROVED')
 );
+alter TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+alter TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+alter TABLE items ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now();
+alter TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+alter TABLE bookings ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now();
+do '
+BEGIN
+IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_booking_approved_overlap''
+AND conrelid = ''bookings''::regclass) THEN
+ALTER TABLE bookings ADD CONSTRAINT ex_booking_approved_overlap
+EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = ''APPROVED'');
+END IF;
+END';
 create TABLE IF NOT EXISTS comments (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 text TEXT NOT NULL,
@@ -30,4 +62,39 @@ author_id BIGINT NOT NULL,
 created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items(id),
 CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+create TABLE IF NOT EXISTS outbox (
+id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+item_id BIGINT NOT NULL,
+booking_id BIGINT NOT NULL,
+event_type VARCHAR(20) NOT NULL,
+payload TEXT NOT NULL,
+created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+claim_token VARCHAR(36),
+claimed_until TIMESTAMP WITHOUT TIME ZONE
+);
+create TABLE IF NOT EXISTS idempotency_keys (
+idempotency_key VARCHAR(255) PRIMARY KEY,
+fingerprint VARCHAR(64) NOT NULL,
+body TEXT,
+created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+create INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (name gin_trgm_ops) WHERE is_available;
+create INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (description gin_trgm_ops) WHERE is_available;
+create INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+create INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+create INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+create INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+create INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+create INDEX IF NOT EXISTS idx_bookings_booker_waiting ON bookings (booker_id, start_date DESC, id DESC) WHERE status = 'WAITING';
+create INDEX IF NOT EXISTS idx_bookings_booker_rejected ON bookings (booker_id, start_date DESC, id DESC) WHERE status = 'REJECTED';
+create INDEX IF NOT EXISTS idx_bookings_item_waiting ON bookings (item_id, start_date DESC, id DESC) WHERE status = 'WAITING';
+create INDEX IF NOT EXISTS idx_bookings_item_rejected ON bookings (item_id, start_date DESC, id DESC) WHERE status = 'REJECTED';
+create INDEX IF NOT EXISTS idx_bookings_item_approved ON bookings (item_id, start_date, end_date) WHERE status = 'APPROVED';
+create INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+create INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+create INDEX IF NOT EXISTS idx_items_request ON items (request_id, id) WHERE request_id IS NOT NULL;
+create INDEX IF NOT EXISTS idx_comments_item ON comments (item_id, id);
+create INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
+select setval('items_seq', greatest((select coalesce(max(id), 0) from items), (select last_value from items_seq)));
+select setval('bookings_seq', greatest((select coalesce(max(id), 0) from bookings), (select last_value from bookings_seq)));
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Части по три строки, чтобы пакет из нескольких строк делился на части.
+ */
+@SpringBootTest(properties = {"shareit.batch.chunk-size=3", "shareit.outbox.relay.enabled=false"})
+class BatchWriterTests {
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void failedChunkMarksAllItsRowsAndOtherChunksAreSaved() {
+        User owner = user();
+        List<BatchWriter.Row<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            rows.add(new BatchWriter.Row<>(i, i == 4 ? null : "Вещь " + i));
+        }
+        List<BatchError> errors = new ArrayList<>();
+
+        BatchResult<Item> result = batchWriter.write(rows, errors, (chunk, chunkErrors) -> chunk.stream()
+                .map(row -> item(owner, row.value()))
+                .toList());
+
+        assertEquals(4, result.getCreated().size());
+        assertEquals(List.of(3, 4, 5), indices(result.getErrors()));
+    }
+
+    @Test
+    void itemBatchReportsErrorsByInputIndex() {
+        User owner = user();
+        List<ItemDto> dtos = Arrays.asList(
+                new ItemDto("Дрель", "Аккумуляторная", true, null, null),
+                new ItemDto(" ", "Без названия", true, null, null),
+                null,
+                new ItemDto("Пила", "Ручная", true, null, Long.MAX_VALUE),
+                new ItemDto("Молоток", null, true, null, null),
+                new ItemDto("Лестница", "Стремянка", false, null, null)
+        );
+
+        BatchResult<Item> result = itemService.createBatch(owner.getId(), dtos);
+
+        assertEquals(List.of("Дрель", "Лестница"), result.getCreated().stream().map(Item::getName).toList());
+        assertEquals(List.of(1, 2, 3, 4), indices(result.getErrors()));
+        assertEquals("Запрос не найден", result.getErrors().get(2).getError());
+    }
+
+    @Test
+    void bookingBatchRejectsRowsOverlappingEarlierRowsOfTheSameBatch() {
+        User owner = user();
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        Item unavailable = item(owner, "Пила");
+        unavailable.setAvailable(false);
+        unavailable = itemRepository.save(unavailable);
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+
+        List<BookingDto> dtos = List.of(
+                booking(item.getId(), base, base.plusHours(2)),
+                booking(item.getId(), base.plusHours(1), base.plusHours(3)),
+                booking(item.getId(), base.plusHours(2), base.plusHours(4)),
+                booking(unavailable.getId(), base, base.plusHours(1)),
+                booking(item.getId(), base.plusHours(3), base.plusHours(5)),
+                booking(Long.MAX_VALUE, base, base.plusHours(1)),
+                booking(item.getId(), base.minusDays(2), base.minusDays(1))
+        );
+
+        BatchResult<Booking> result = bookingService.createBatch(user().getId(), dtos);
+
+        assertEquals(2, result.getCreated().size());
+        assertEquals(List.of(1, 3, 4, 5, 6), indices(result.getErrors()));
+        assertEquals("Вещь уже забронирована на эти даты", result.getErrors().get(0).getError());
+        assertEquals("Вещь уже забронирована на эти даты", result.getErrors().get(2).getError());
+    }
+
+    private static List<Integer> indices(List<BatchError> errors) {
+        return errors.stream().map(BatchError::getIndex).toList();
+    }
+
+    private static BookingDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto dto = new BookingDto();
+        dto.setItemId(itemId);
+        dto.setStart(start);
+        dto.setEnd(end);
+        return dto;
+    }
+
+    private static Item item(User owner, String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription("Описание");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@mail.ru");
+        return userRepository.save(user);
+    }
+}
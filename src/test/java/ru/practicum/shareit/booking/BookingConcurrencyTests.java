@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Slf4j
+class BookingConcurrencyTests {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentOverlappingBookingsProduceNoDoubleBooking() throws Exception {
+        User owner = user();
+        Item item = item(owner);
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(user());
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long started = System.nanoTime();
+        runConcurrently(thread -> {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                BookingDto dto = new BookingDto();
+                dto.setItemId(item.getId());
+                dto.setStart(base.plusHours(attempt));
+                dto.setEnd(base.plusHours(attempt).plusMinutes(90));
+                try {
+                    Booking booking = bookingService.create(bookers.get(thread).getId(), dto);
+                    bookingService.approve(owner.getId(), booking.getId(), true);
+                    created.incrementAndGet();
+                } catch (ConflictException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        });
+        double seconds = (System.nanoTime() - started) / 1e9;
+        int total = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("Бронирований: {} создано, {} отклонено, {} оп/с",
+                created.get(), rejected.get(), String.format("%.1f", total / seconds));
+
+        assertEquals(total, created.get() + rejected.get());
+        assertNoOverlaps(item.getId());
+    }
+
+    @Test
+    void concurrentApprovalsApproveOnlyOneOfOverlappingBookings() throws Exception {
+        User owner = user();
+        Item item = item(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(user());
+            booking.setStart(start.plusMinutes(i));
+            booking.setEnd(start.plusHours(2));
+            booking.setStatus(BookingStatus.WAITING);
+            bookings.add(bookingRepository.save(booking));
+        }
+
+        AtomicInteger approved = new AtomicInteger();
+        runConcurrently(thread -> {
+            try {
+                bookingService.approve(owner.getId(), bookings.get(thread).getId(), true);
+                approved.incrementAndGet();
+            } catch (ConflictException e) {
+                log.debug("Одобрение отклонено: {}", e.getMessage());
+            }
+            return null;
+        });
+
+        assertEquals(1, approved.get());
+        assertNoOverlaps(item.getId());
+    }
+
+    @Test
+    void staleAvailabilityTreeIsRecheckedAndReloaded() {
+        User owner = user();
+        Item item = item(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto dto = new BookingDto();
+        dto.setItemId(item.getId());
+        dto.setStart(start);
+        dto.setEnd(start.plusHours(2));
+
+        Booking first = bookingService.create(user().getId(), dto);
+        // Отказ на другом узле: база изменилась, дерево этого узла — нет.
+        first.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(first);
+
+        Booking second = bookingService.create(user().getId(), dto);
+        assertEquals(BookingStatus.WAITING, second.getStatus());
+        assertThrows(ConflictException.class, () -> bookingService.create(user().getId(), dto));
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                Callable<Void> callable = () -> {
+                    ready.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            ready.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertNoOverlaps(Long itemId) {
+        List<Booking> approved = bookingRepository.findAll().stream()
+                .filter(b -> b.getItem().getId().equals(itemId))
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
+                .toList();
+        for (Booking a : approved) {
+            for (Booking b : approved) {
+                if (!a.getId().equals(b.getId())) {
+                    assertTrue(!a.getStart().isBefore(b.getEnd()) || !b.getStart().isBefore(a.getEnd()),
+                            "Бронирования " + a.getId() + " и " + b.getId() + " пересекаются");
+                }
+            }
+        }
+    }
+
+    private Item item(User owner) {
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@mail.ru");
+        return userRepository.save(user);
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
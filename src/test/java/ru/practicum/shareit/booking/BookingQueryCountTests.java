@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Статистика Hibernate общая для всех потоков, поэтому ретранслятор outbox,
+ * опрашивающий базу по расписанию, выключен.
+ */
+@SpringBootTest(properties = "shareit.outbox.relay.enabled=false")
+class BookingQueryCountTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void ownerBookingsStatementCountDoesNotDependOnRows() {
+        assertEquals(ownerBookingsStatements(1), ownerBookingsStatements(20));
+    }
+
+    @Test
+    void userBookingsStatementCountDoesNotDependOnRows() {
+        assertEquals(userBookingsStatements(1), userBookingsStatements(20));
+    }
+
+    @Test
+    void ownerItemsStatementCountDoesNotDependOnRows() {
+        assertEquals(ownerItemsStatements(1), ownerItemsStatements(20));
+    }
+
+    private long ownerBookingsStatements(int rows) {
+        User owner = seed(rows, user());
+        statistics.clear();
+        BookingMapper.toDto(bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, rows, null).bookings());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long userBookingsStatements(int rows) {
+        User booker = user();
+        seed(rows, booker);
+        statistics.clear();
+        BookingMapper.toDto(bookingService.getUserBookings(booker.getId(), BookingState.ALL, 0, rows, null).bookings());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long ownerItemsStatements(int rows) {
+        User owner = seed(rows, user());
+        statistics.clear();
+        assertEquals(rows, itemService.getOwnerItems(owner.getId()).size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User seed(int rows, User booker) {
+        User owner = user();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            Item item = new Item();
+            item.setName("Вещь " + i);
+            item.setDescription("Описание " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStart(now.minusDays(2).plusMinutes(i));
+            booking.setEnd(now.minusDays(1));
+            booking.setStatus(BookingStatus.APPROVED);
+            bookingRepository.save(booking);
+
+            Comment comment = new Comment();
+            comment.setItem(item);
+            comment.setAuthor(user());
+            comment.setText("Комментарий " + i);
+            comment.setCreated(now);
+            commentRepository.save(comment);
+        }
+        return owner;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@mail.ru");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Реплика — отдельная база H2 со своей таблицей пользователей и одной
+ * записью, которой нет в основной. По тому, какие пользователи вернулись,
+ * видно, куда ушло чтение.
+ */
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.driver-class-name=org.h2.Driver",
+        "shareit.datasource.replica.username=sa",
+        "shareit.datasource.replica.password="
+})
+class ReplicaRoutingTests {
+    private static final String REPLICA_EMAIL = "replica@replica.ru";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReadYourWritesTracker tracker;
+
+    @Autowired
+    private ReadRoutingInterceptor interceptor;
+
+    @Autowired
+    private ReplicaRoutingConfig.ReplicaPools pools;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = pools.replica().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists users (
+                    id bigint primary key,
+                    name varchar(255) not null,
+                    email varchar(255) not null,
+                    version bigint)
+                    """);
+            statement.execute("merge into users key (id) values (1000000, 'replica', '" + REPLICA_EMAIL + "', 0)");
+        }
+
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@mail.ru");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        List<User> users = userService.getAll();
+
+        assertTrue(contains(users, REPLICA_EMAIL));
+        assertFalse(users.stream().anyMatch(u -> u.getId().equals(userId)));
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyTransaction() {
+        List<User> users = ReadRoutingContext.onPrimary(userService::getAll);
+
+        assertFalse(contains(users, REPLICA_EMAIL));
+    }
+
+    @Test
+    void recentWriterReadsFromPrimary() {
+        ReadRoutingContext.bind(userId, false, false);
+        tracker.wrote(userId);
+
+        assertFalse(contains(userService.getAll(), REPLICA_EMAIL));
+    }
+
+    @Test
+    void writeCookieSendsNextReadToPrimaryOnAnyNode() {
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/items");
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        interceptor.preHandle(write, writeResponse, new Object());
+        interceptor.afterCompletion(write, writeResponse, new Object(), null);
+        Cookie cookie = writeResponse.getCookie(ReadRoutingInterceptor.WRITE_COOKIE);
+        assertNotNull(cookie);
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/items");
+        read.setCookies(cookie);
+        interceptor.preHandle(read, new MockHttpServletResponse(), new Object());
+
+        assertFalse(contains(userService.getAll(), REPLICA_EMAIL));
+    }
+
+    private static boolean contains(List<User> users, String email) {
+        return users.stream().anyMatch(u -> email.equals(u.getEmail()));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.idempotency.store.InMemoryIdempotencyStore;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyGuardTests {
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100);
+    private final IdempotencyGuard guard = new IdempotencyGuard(store, new ObjectMapper(), Duration.ofSeconds(10));
+
+    @Test
+    void concurrentDuplicatesExecuteOnce() throws Exception {
+        ItemDto request = new ItemDto("Дрель", "Аккумуляторная дрель", true, null, null);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ItemDto>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    return guard.execute("items", 1L, "key", request, ItemDto.class, () -> {
+                        executions.incrementAndGet();
+                        return new ItemDto("Дрель", "Аккумуляторная дрель", true, 42L, null);
+                    });
+                }));
+            }
+            ready.countDown();
+            for (Future<ItemDto> future : futures) {
+                assertEquals(42L, future.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateOnAnotherNodeWaitsForStoredResponse() throws Exception {
+        IdempotencyGuard otherNode = new IdempotencyGuard(store, new ObjectMapper(), Duration.ofSeconds(10));
+        ItemDto request = new ItemDto("Дрель", "Аккумуляторная дрель", true, null, null);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ItemDto> first = executor.submit(() -> guard.execute("items", 1L, "key", request, ItemDto.class,
+                    () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        await(finish);
+                        return new ItemDto("Дрель", "Аккумуляторная дрель", true, 42L, null);
+                    }));
+            started.await();
+            Future<ItemDto> second = executor.submit(() ->
+                    otherNode.execute("items", 1L, "key", request, ItemDto.class, () -> {
+                        executions.incrementAndGet();
+                        return new ItemDto("Дрель", "Аккумуляторная дрель", true, 43L, null);
+                    }));
+            finish.countDown();
+
+            assertEquals(42L, first.get().getId());
+            assertEquals(42L, second.get().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedExecutionReleasesKey() {
+        ItemDto request = new ItemDto("Дрель", "Дрель", true, null, null);
+        assertThrows(IllegalStateException.class, () -> guard.execute("items", 1L, "key", request, ItemDto.class,
+                () -> {
+                    throw new IllegalStateException("сбой");
+                }));
+
+        assertEquals(7L, guard.execute("items", 1L, "key", request, ItemDto.class,
+                () -> new ItemDto("Дрель", "Дрель", true, 7L, null)).getId());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() {
+        guard.execute("items", 1L, "key", new ItemDto("Дрель", "Дрель", true, null, null), ItemDto.class,
+                () -> new ItemDto("Дрель", "Дрель", true, 1L, null));
+
+        assertThrows(ConflictException.class, () -> guard.execute("items", 1L, "key",
+                new ItemDto("Пила", "Пила", true, null, null), ItemDto.class,
+                () -> new ItemDto("Пила", "Пила", true, 2L, null)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
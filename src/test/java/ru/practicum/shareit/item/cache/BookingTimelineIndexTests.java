@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingTimelineIndexTests {
+    private static final Long ITEM_ID = 7L;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private final BookingRepository repository = mock(BookingRepository.class);
+
+    @Test
+    void approvalDuringBatchLoadIsNotLost() {
+        BookingTimelineIndex index = index(1_000);
+        Booking booking = booking(100L);
+        when(repository.findApprovedTimeline(anyCollection(), eq(BookingStatus.APPROVED)))
+                .thenAnswer(invocation -> {
+                    index.approved(booking);
+                    return List.of();
+                })
+                .thenReturn(List.of(row(booking)));
+
+        BookingTimeline timeline = index.getAll(List.of(ITEM_ID)).get(ITEM_ID);
+
+        assertEquals(1, timeline.size());
+        assertEquals(1, index.get(ITEM_ID).size());
+        verify(repository, times(2)).findApprovedTimeline(anyCollection(), eq(BookingStatus.APPROVED));
+    }
+
+    @Test
+    void approvalDuringSingleLoadIsAppliedAfterIt() throws InterruptedException {
+        BookingTimelineIndex index = index(1_000);
+        Booking booking = booking(100L);
+        AtomicReference<Thread> approver = new AtomicReference<>();
+        when(repository.findApprovedTimeline(anyCollection(), eq(BookingStatus.APPROVED)))
+                .thenAnswer(invocation -> {
+                    approver.set(Thread.ofPlatform().start(() -> index.approved(booking)));
+                    Thread.sleep(50);
+                    return List.of();
+                });
+
+        index.get(ITEM_ID);
+        approver.get().join();
+
+        assertEquals(1, index.get(ITEM_ID).size());
+    }
+
+    @Test
+    void warmUpStopsAtBookingCap() {
+        BookingTimelineIndex index = index(500);
+        List<Long> page = LongStream.rangeClosed(1, 1_000).boxed().toList();
+        when(repository.findApprovedItemIdsAfter(anyLong(), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(page);
+        when(repository.findApprovedTimeline(anyCollection(), eq(BookingStatus.APPROVED)))
+                .thenReturn(List.of());
+
+        index.load();
+
+        verify(repository, times(1)).findApprovedItemIdsAfter(anyLong(), eq(BookingStatus.APPROVED), any());
+    }
+
+    private BookingTimelineIndex index(long maxBookings) {
+        return new BookingTimelineIndex(repository, new SimpleMeterRegistry(), maxBookings, Duration.ofMinutes(5));
+    }
+
+    private static Booking booking(Long id) {
+        Item item = new Item();
+        item.setId(ITEM_ID);
+        User booker = new User();
+        booker.setId(3L);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(START);
+        booking.setEnd(START.plusHours(1));
+        return booking;
+    }
+
+    private static BookingTimelineRow row(Booking booking) {
+        return new BookingTimelineRow(booking.getId(), ITEM_ID, booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd());
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BookingTimelineTests {
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void lastIsLatestEndingAmongStartedAndNextIsFirstStartingAfterNow() {
+        BookingTimeline timeline = BookingTimeline.of(List.of(
+                row(1L, 0, 10),
+                row(2L, 2, 4),
+                row(3L, 5, 6),
+                row(4L, 20, 30),
+                row(5L, 25, 26)
+        ));
+
+        assertNull(timeline.last(at(0)));
+        assertEquals(new BookingShortDto(2L, 20L), timeline.next(at(0)));
+        assertEquals(new BookingShortDto(1L, 10L), timeline.last(at(7)));
+        assertEquals(new BookingShortDto(4L, 40L), timeline.next(at(7)));
+        assertEquals(new BookingShortDto(4L, 40L), timeline.last(at(21)));
+        assertEquals(new BookingShortDto(5L, 50L), timeline.next(at(21)));
+        assertEquals(new BookingShortDto(4L, 40L), timeline.last(at(100)));
+        assertNull(timeline.next(at(100)));
+    }
+
+    @Test
+    void bookingStartingExactlyNowIsNeitherLastNorNext() {
+        BookingTimeline timeline = BookingTimeline.of(List.of(row(1L, 0, 2), row(2L, 5, 8)));
+
+        assertEquals(new BookingShortDto(1L, 10L), timeline.last(at(5)));
+        assertNull(timeline.next(at(5)));
+    }
+
+    @Test
+    void withKeepsOrderAndIgnoresDuplicates() {
+        BookingTimeline timeline = BookingTimeline.of(List.of(row(1L, 0, 1), row(3L, 10, 11)));
+
+        BookingTimeline added = timeline.with(row(2L, 5, 6));
+        assertEquals(3, added.size());
+        assertEquals(new BookingShortDto(2L, 20L), added.next(at(1)));
+        assertEquals(new BookingShortDto(2L, 20L), added.last(at(7)));
+        assertSame(added, added.with(row(2L, 5, 6)));
+        assertEquals(2, timeline.size());
+    }
+
+    @Test
+    void epochMicrosTruncatesNanosAndRoundTripsBeforeEpoch() {
+        LocalDateTime time = LocalDateTime.of(2030, 6, 1, 12, 0, 0, 123_456_789);
+        assertEquals(LocalDateTime.of(2030, 6, 1, 12, 0, 0, 123_456_000),
+                EpochMicros.toLocalDateTime(EpochMicros.of(time)));
+
+        LocalDateTime beforeEpoch = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000);
+        assertEquals(-1, EpochMicros.of(beforeEpoch));
+        assertEquals(beforeEpoch, EpochMicros.toLocalDateTime(-1));
+        assertEquals(0, EpochMicros.of(LocalDateTime.of(1970, 1, 1, 0, 0)));
+    }
+
+    private static BookingTimelineRow row(Long id, int startHour, int endHour) {
+        return new BookingTimelineRow(id, 1L, id * 10, at(startHour), at(endHour));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return T0.plusHours(hour);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityIndexTests {
+    private static final Long ITEM_ID = 7L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final BookingRepository repository = mock(BookingRepository.class);
+    private final ItemAvailabilityIndex index = new ItemAvailabilityIndex(
+            repository, new SimpleMeterRegistry(), 1_000, Duration.ofMinutes(5));
+
+    @Test
+    void treeTreatsIntervalsAsHalfOpen() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(1, 10, 20);
+        tree.add(2, 30, 40);
+
+        assertTrue(tree.overlaps(15, 16));
+        assertTrue(tree.overlaps(5, 11));
+        assertTrue(tree.overlaps(19, 31));
+        assertFalse(tree.overlaps(20, 30));
+        assertFalse(tree.overlaps(0, 10));
+        assertFalse(tree.overlaps(40, 50));
+    }
+
+    @Test
+    void treeIgnoresDuplicatesAndRemovesByKey() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(1, 10, 20);
+        tree.add(1, 10, 20);
+        tree.add(2, 10, 15);
+        assertEquals(2, tree.size());
+
+        tree.remove(1, 10);
+        tree.remove(3, 10);
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(15, 20));
+        assertTrue(tree.overlaps(14, 15));
+    }
+
+    @Test
+    void treeMatchesBruteForce() {
+        Random random = new Random(42);
+        BookingIntervalTree tree = new BookingIntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(100);
+            tree.add(id, start, end);
+            intervals.add(new long[]{id, start, end});
+            if (random.nextInt(4) == 0) {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                tree.remove(removed[0], removed[1]);
+            }
+        }
+        assertEquals(intervals.size(), tree.size());
+
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(10_100);
+            long end = start + 1 + random.nextInt(50);
+            boolean expected = intervals.stream().anyMatch(v -> v[1] < end && v[2] > start);
+            assertEquals(expected, tree.overlaps(start, end), "[" + start + ", " + end + ")");
+
+            List<Long> visited = new ArrayList<>();
+            tree.forEachOverlapping(start, end, (s, e) -> visited.add(s));
+            assertEquals(intervals.stream().filter(v -> v[1] < end && v[2] > start).count(), visited.size());
+            assertEquals(visited.stream().sorted().toList(), visited);
+        }
+    }
+
+    @Test
+    void freeSlotsFromLoadedTreeMergeOverlapsAndSkipAdjacentGaps() {
+        when(repository.findOccupiedAfter(anyLong(), anyCollection(), any())).thenReturn(List.of(
+                row(1L, 2, 4),
+                row(2L, 3, 6),
+                row(3L, 6, 8),
+                row(4L, 10, 12)
+        ));
+        assertTrue(index.isBusy(ITEM_ID, at(3), at(4)));
+
+        List<AvailabilitySlotDto> slots = index.freeSlots(ITEM_ID, at(0), at(11));
+
+        assertEquals(List.of(slot(0, 2), slot(8, 10)), slots);
+        verify(repository, never()).findOverlapping(anyCollection(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void freeSlotsWithoutTreeComeFromDatabase() {
+        when(repository.findOverlapping(anyCollection(), any(), any(), anyCollection()))
+                .thenReturn(List.of(booking(2L, 5, 7), booking(1L, 1, 2)));
+
+        assertEquals(List.of(slot(0, 1), slot(2, 5), slot(7, 9)), index.freeSlots(ITEM_ID, at(0), at(9)));
+        assertEquals(List.of(), index.freeSlots(ITEM_ID, at(5), at(7)));
+    }
+
+    @Test
+    void bookedAndReleasedUpdateLoadedTreeAndInvalidateReloads() {
+        when(repository.findOccupiedAfter(anyLong(), anyCollection(), any())).thenReturn(List.of());
+        assertFalse(index.isBusy(ITEM_ID, at(1), at(2)));
+
+        Booking booking = booking(1L, 1, 2);
+        index.booked(booking);
+        assertTrue(index.isBusy(ITEM_ID, at(1), at(2)));
+        index.released(booking);
+        assertFalse(index.isBusy(ITEM_ID, at(1), at(2)));
+
+        index.booked(booking);
+        index.invalidate(ITEM_ID);
+        assertFalse(index.isBusy(ITEM_ID, at(1), at(2)));
+        verify(repository, times(2)).findOccupiedAfter(anyLong(), anyCollection(), any());
+    }
+
+    @Test
+    void bookingsForItemsWithoutTreeAreNotCached() {
+        index.booked(booking(1L, 1, 2));
+
+        when(repository.findOccupiedAfter(anyLong(), anyCollection(), any())).thenReturn(List.of());
+        assertFalse(index.isBusy(ITEM_ID, at(1), at(2)));
+    }
+
+    private static BookingTimelineRow row(Long id, int startHour, int endHour) {
+        return new BookingTimelineRow(id, ITEM_ID, 3L, at(startHour), at(endHour));
+    }
+
+    private static Booking booking(Long id, int startHour, int endHour) {
+        Item item = new Item();
+        item.setId(ITEM_ID);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(at(startHour));
+        booking.setEnd(at(endHour));
+        return booking;
+    }
+
+    private static AvailabilitySlotDto slot(int startHour, int endHour) {
+        return new AvailabilitySlotDto(at(startHour), at(endHour));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return T0.plusHours(hour);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ItemSearchEngineTests {
+
+    @Test
+    void trigramSearchMatchesCaseInsensitiveSubstrings() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(null);
+        engine.index(item(1L, "Дрель", "Аккумуляторная ДРЕЛЬ-шуруповёрт", true));
+        engine.index(item(2L, "Отвёртка", "крестовая", true));
+        engine.index(item(3L, "Дрель ударная", "сетевая", false));
+
+        assertEquals(List.of(1L), engine.search("дрель"));
+        assertEquals(List.of(1L), engine.search("ШУРУП"));
+        assertEquals(List.of(), engine.search("перфоратор"));
+    }
+
+    @Test
+    void shortQueriesScanAllDocuments() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(null);
+        engine.index(item(1L, "Ящик", "ab", true));
+        engine.index(item(2L, "Лом", "xAbx", true));
+        engine.index(item(3L, "Пила", "a b", true));
+
+        assertEquals(List.of(1L, 2L), engine.search("AB").stream().sorted().toList());
+        assertEquals(List.of(2L), engine.search("x"));
+    }
+
+    @Test
+    void patternCharactersAreMatchedLiterally() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(null);
+        engine.index(item(1L, "Ткань", "100% хлопок", true));
+        engine.index(item(2L, "Ткань", "1000 хлопок", true));
+        engine.index(item(3L, "Файл", "snake_case", true));
+        engine.index(item(4L, "Файл", "snakeXcase", true));
+        engine.index(item(5L, "Путь", "C:\\tmp", true));
+
+        assertEquals(List.of(1L), engine.search("0% х"));
+        assertEquals(List.of(3L), engine.search("e_c"));
+        assertEquals(List.of(5L), engine.search(":\\t"));
+        assertEquals(List.of(3L), engine.search("_"));
+    }
+
+    @Test
+    void reindexingReplacesOldTextAndAvailability() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(null);
+        engine.index(item(1L, "Дрель", "", true));
+        engine.index(item(1L, "Пила", "", true));
+
+        assertEquals(List.of(), engine.search("дрель"));
+        assertEquals(List.of(1L), engine.search("пила"));
+
+        engine.index(item(1L, "Пила", "", false));
+        assertEquals(List.of(), engine.search("пила"));
+    }
+
+    @Test
+    void postgresEngineEscapesPatternCharacters() {
+        ItemRepository repository = mock(ItemRepository.class);
+
+        new PostgresItemSearchEngine(repository).search("100%_a\\b");
+
+        verify(repository).searchIds("100\\%\\_a\\\\b");
+    }
+
+    @Test
+    void postingsStaySortedWithoutDuplicates() {
+        LongPostings postings = new LongPostings();
+        for (long id : new long[]{5, 1, 9, 3, 7, 5, 11}) {
+            postings.add(id);
+        }
+        postings.remove(9);
+        postings.remove(42);
+
+        assertEquals(5, postings.size());
+        long[] ids = new long[postings.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = postings.get(i);
+        }
+        assertEquals(List.of(1L, 3L, 5L, 7L, 11L), Arrays.stream(ids).boxed().toList());
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestLogSamplingTests {
+    private static final String LOGGER = "ru.practicum.shareit.logging.sampled";
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Logger log;
+
+    @BeforeEach
+    void setUp() {
+        filter.setLoggerPrefix(LOGGER);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+        appender.setContext(context);
+        appender.start();
+        log = context.getLogger(LOGGER);
+        log.setLevel(Level.INFO);
+        log.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.getTurboFilterList().remove(filter);
+        log.detachAppender(appender);
+        MDC.clear();
+    }
+
+    @Test
+    void unsampledSuccessfulRequestDropsInfoButKeepsWarnings() {
+        RequestLogSampling.Scope scope = RequestLogSampling.open(false);
+        log.info("Вещь {} получена", 1);
+        log.warn("Медленный запрос");
+        scope.close(false);
+
+        assertEquals(List.of("Медленный запрос"), messages());
+        assertNull(MDC.get(RequestLogSampling.MDC_KEY));
+    }
+
+    @Test
+    void unsampledFailedRequestReplaysDeferredEvents() {
+        RequestLogSampling.Scope scope = RequestLogSampling.open(false);
+        log.info("Вещь {} получена", 1);
+        log.warn("Вещь не найдена");
+        scope.close(true);
+
+        assertEquals(List.of("Вещь не найдена", "Вещь 1 получена"), messages());
+    }
+
+    @Test
+    void suspendedScopeKeepsDeferredEventsUntilResumed() throws InterruptedException {
+        RequestLogSampling.Scope scope = RequestLogSampling.open(false);
+        log.info("До асинхронной части");
+        scope.suspend();
+
+        Thread dispatch = Thread.ofPlatform().start(() -> {
+            scope.resume();
+            log.info("После асинхронной части");
+            scope.close(true);
+        });
+        dispatch.join();
+
+        assertEquals(List.of("До асинхронной части", "После асинхронной части"), messages());
+    }
+
+    @Test
+    void sampledRequestsAndEventsOutsideRequestsAreLogged() {
+        RequestLogSampling.Scope scope = RequestLogSampling.open(true);
+        log.info("В выборке");
+        scope.close(false);
+        log.info("Вне запроса");
+
+        assertEquals(List.of("В выборке", "Вне запроса"), messages());
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+}
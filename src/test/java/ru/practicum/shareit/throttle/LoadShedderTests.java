@@ -0,0 +1,65 @@
+package ru.practicum.shareit.throttle;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+import ru.practicum.shareit.metrics.RequestMetricsInterceptor;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadShedderTests {
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+    private final RequestMetricsInterceptor interceptor = new RequestMetricsInterceptor(registry);
+    private final LoadShedder shedder = new LoadShedder(new LoadSheddingProperties(), registry);
+
+    @Test
+    void longAsyncRequestsDoNotTriggerShedding() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            request(true, Duration.ofMinutes(30));
+            request(false, Duration.ofMillis(20));
+            shedder.update();
+        }
+
+        assertEquals(0, registry.get("shareit.load.shed-ratio").gauge().value());
+        assertDoesNotThrow(shedder::check);
+    }
+
+    @Test
+    void slowBlockingRequestsTriggerShedding() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            request(false, Duration.ofSeconds(10));
+            shedder.update();
+        }
+
+        assertEquals(1, registry.get("shareit.load.shed-ratio").gauge().value());
+        assertThrows(ServiceUnavailableException.class, shedder::check);
+    }
+
+    private void request(boolean async, Duration duration) throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Endpoint(), Endpoint.class.getMethod("handle"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        if (async) {
+            interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        }
+        clock.add(duration);
+        interceptor.afterCompletion(request, response, handler, null);
+    }
+
+    static class Endpoint {
+        public void handle() {
+        }
+    }
+}